@@ -1,44 +1,157 @@
 package Selenium_Framework.base;
 
+import Selenium_Framework.pipeline.NavigationPipeline;
+import Selenium_Framework.proxy.LatencyProxy;
+import org.openqa.selenium.Proxy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
 
 public class BaseDriver {
 
-    private static WebDriver driver;
+    // One driver per thread so that concurrent sessions (e.g. load mode) do not share a browser
+    private static final ThreadLocal<WebDriver> driver = new ThreadLocal<>();
+    // The browser each thread's driver was created for, so a kept session is only reused for the same browser
+    private static final ThreadLocal<String> browserName = new ThreadLocal<>();
 
-    // Initialize WebDriver
+    // Initialize WebDriver, headless when -Dbrowser.headless=true is set
     public static WebDriver initializeDriver(String browser) {
-        if (driver == null) {
-            switch (browser.toLowerCase()) {
-                case "chrome":
-                    driver = new ChromeDriver();
-                    break;
-                case "firefox":
-                    driver = new FirefoxDriver();
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unsupported browser: " + browser);
+        return initializeDriver(browser, Boolean.getBoolean("browser.headless"));
+    }
+
+    // Initialize WebDriver with an explicit headless flag; a kept session of another browser is replaced
+    public static WebDriver initializeDriver(String browser, boolean headless) {
+        if (driver.get() != null && !browser.equalsIgnoreCase(browserName.get())) {
+            quitDriver();
+        }
+        if (driver.get() == null) {
+            // The governor attributes the driver and browser processes to this session
+            WebDriver newDriver = SessionGovernor.launch(() -> createDriver(browser, headless));
+            if (!headless && !(newDriver instanceof StaticPageDriver)) {
+                newDriver.manage().window().maximize();
+            }
+            if (BrowserLogStream.isEnabled()) {
+                BrowserLogStream.attach(newDriver);
+            }
+            if (TabRegistry.isEnabled()) {
+                TabRegistry.attach(newDriver);
             }
-            driver.manage().window().maximize();
+            if (NetworkActivity.isEnabled()) {
+                NetworkActivity.attach(newDriver);
+            }
+            if (ScreencastRecorder.isEnabled()) {
+                ScreencastRecorder.start(newDriver);
+            }
+            // Network/CPU throttling from -Dthrottle.profile, e.g. slow-4g+cpu-4x
+            if (ThrottlingProfile.isEnabled()) {
+                ThrottlingProfile.apply(newDriver, ThrottlingProfile.getConfigured());
+            }
+            driver.set(newDriver);
+            browserName.set(browser);
+        }
+        return driver.get();
+    }
+
+    // Create the WebDriver for the requested browser
+    private static WebDriver createDriver(String browser, boolean headless) {
+        WebDriver newDriver;
+        switch (browser.toLowerCase()) {
+            case "chrome":
+                ChromeOptions chromeOptions = new ChromeOptions();
+                if (needsBiDi()) {
+                    chromeOptions.enableBiDi();
+                }
+                if (headless) {
+                    chromeOptions.addArguments("--headless=new", "--window-size=1920,1080");
+                }
+                if (NavigationPipeline.isEnabled()) {
+                    // Pages preloaded in a background tab must load as fast as in the foreground
+                    chromeOptions.addArguments("--disable-background-timer-throttling",
+                            "--disable-renderer-backgrounding", "--disable-backgrounding-occluded-windows");
+                }
+                if (LatencyProxy.isEnabled()) {
+                    // Chrome never proxies loopback hosts unless told to, and the fixture is usually local
+                    chromeOptions.setProxy(latencyProxy());
+                    chromeOptions.addArguments("--proxy-bypass-list=<-loopback>");
+                }
+                newDriver = new ChromeDriver(chromeOptions);
+                break;
+            case "firefox":
+                FirefoxOptions firefoxOptions = new FirefoxOptions();
+                if (needsBiDi()) {
+                    firefoxOptions.enableBiDi();
+                }
+                if (headless) {
+                    firefoxOptions.addArguments("-headless", "-width=1920", "-height=1080");
+                }
+                if (NavigationPipeline.isEnabled()) {
+                    // Background tabs otherwise run their timers at most once a second
+                    firefoxOptions.addPreference("dom.min_background_timeout_value", 4);
+                }
+                if (LatencyProxy.isEnabled()) {
+                    firefoxOptions.setProxy(latencyProxy());
+                    firefoxOptions.addPreference("network.proxy.allow_hijacking_localhost", true);
+                }
+                newDriver = new FirefoxDriver(firefoxOptions);
+                break;
+            case "http":
+                // No browser process: HTTP client + HTML parser, for pages that need no JavaScript
+                newDriver = new StaticPageDriver();
+                if (LatencyProxy.isEnabled()) {
+                    ((StaticPageDriver) newDriver).setProxySettings(latencyProxy());
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported browser: " + browser);
         }
-        return driver;
+        return newDriver;
+    }
+
+    // The session services that consume browser events, and preloading, need a BiDi connection
+    private static boolean needsBiDi() {
+        return BrowserLogStream.isEnabled() || TabRegistry.isEnabled() || NetworkActivity.isEnabled()
+                || NavigationPipeline.isEnabled();
+    }
+
+    // Proxy settings pointing at the shared latency-injecting proxy (-Dproxy.rules)
+    private static Proxy latencyProxy() {
+        String address = LatencyProxy.shared().getAddress();
+        return new Proxy().setHttpProxy(address).setSslProxy(address);
     }
 
     // Get the current WebDriver instance
     public static WebDriver getDriver() {
-        if (driver == null) {
+        if (driver.get() == null) {
             throw new IllegalStateException("Driver not initialized. Call initializeDriver() first.");
         }
-        return driver;
+        return driver.get();
+    }
+
+    // Check whether the current thread has a driver, without failing when it has none
+    public static boolean hasDriver() {
+        return driver.get() != null;
     }
 
     // Quit the driver and clean up
     public static void quitDriver() {
-        if (driver != null) {
-            driver.quit();
-            driver = null;
+        WebDriver current = driver.get();
+        if (current != null) {
+            try {
+                current.quit();
+            } finally {
+                // Even if quit() fails, the session's processes must not outlive it
+                driver.remove();
+                browserName.remove();
+                NavigationPipeline.release(current);
+                BrowserLogStream.detach(current);
+                TabRegistry.detach(current);
+                NetworkActivity.detach(current);
+                ScreencastRecorder.stop(current);
+                ThrottlingProfile.release(current);
+                SessionGovernor.release(current);
+            }
         }
     }
 }
@@ -0,0 +1,215 @@
+package Selenium_Framework.base;
+
+import Selenium_Framework.logging.TestLog;
+import io.qameta.allure.Allure;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.bidi.HasBiDi;
+import org.openqa.selenium.bidi.module.LogInspector;
+import org.openqa.selenium.bidi.module.Network;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An always-on stream of browser console messages, uncaught JavaScript
+ * exceptions and failed network requests for one WebDriver session.
+ *
+ * Events are pushed by the browser over the BiDi WebSocket, so recording them
+ * costs no WebDriver round trips. They are kept in a fixed-size ring buffer
+ * ({@code -Dlogs.bufferSize}, default 500 entries) that only overwrites the
+ * oldest entries, and are written to Allure only when a test fails.
+ *
+ * The stream is enabled by default; {@code -Dlogs.stream=false} switches it off.
+ */
+public class BrowserLogStream {
+
+    private static final int BUFFER_SIZE = Integer.getInteger("logs.bufferSize", 500);
+    private static final Map<WebDriver, BrowserLogStream> streams = new ConcurrentHashMap<>();
+
+    private final Entry[] buffer = new Entry[BUFFER_SIZE];
+    private long written;
+    private long cleared;
+
+    /**
+     * Returns whether log streaming is requested for new sessions.
+     *
+     * @return {@code true} unless {@code -Dlogs.stream=false} was given.
+     */
+    public static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty("logs.stream"));
+    }
+
+    /**
+     * Subscribes to the console, JavaScript exception and network events of the session.
+     * Drivers without BiDi support are left untouched.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void attach(WebDriver driver) {
+        if (!(driver instanceof HasBiDi) || ((HasBiDi) driver).maybeGetBiDi().isEmpty()) {
+            return;
+        }
+        BrowserLogStream stream = new BrowserLogStream();
+        try {
+            subscribe(driver, stream);
+        } catch (WebDriverException e) {
+            // Diagnostics must never keep a session from starting
+            TestLog.warn("Browser log stream unavailable: " + e.getMessage());
+            return;
+        }
+        streams.put(driver, stream);
+    }
+
+    private static void subscribe(WebDriver driver, BrowserLogStream stream) {
+        LogInspector logInspector = new LogInspector(driver);
+        logInspector.onConsoleEntry(entry ->
+                stream.add("console", entry.getLevel().toString(), entry.getTimestamp(), entry.getText()));
+        logInspector.onJavaScriptException(entry ->
+                stream.add("exception", entry.getLevel().toString(), entry.getTimestamp(), entry.getText()));
+        Network network = new Network(driver);
+        network.onFetchError(error ->
+                stream.add("network", "error", error.getTimestamp(),
+                        error.getRequest().getMethod() + " " + error.getRequest().getUrl() + " failed: " + error.getErrorText()));
+        network.onResponseCompleted(response -> {
+            int status = response.getResponseData().getStatus();
+            if (status >= 400) {
+                stream.add("network", status >= 500 ? "error" : "warn", response.getTimestamp(),
+                        response.getRequest().getMethod() + " " + response.getRequest().getUrl() + " -> " + status);
+            }
+        });
+    }
+
+    /**
+     * Stops tracking the session. The browser-side subscriptions end with the session itself.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void detach(WebDriver driver) {
+        streams.remove(driver);
+    }
+
+    /**
+     * Returns the buffered entries of the session, oldest first.
+     *
+     * @param driver The driver of the session.
+     * @return The entries, or an empty list if the session has no stream.
+     */
+    public static List<Entry> getEntries(WebDriver driver) {
+        BrowserLogStream stream = streams.get(driver);
+        return stream == null ? List.of() : stream.snapshot();
+    }
+
+    /**
+     * Returns the sequence number of the newest entry of the session, so that
+     * callers can later pick out the entries that arrived after this point.
+     *
+     * @param driver The driver of the session.
+     * @return The sequence number, or {@code 0} if the session has no stream or no entries yet.
+     */
+    public static long getSequence(WebDriver driver) {
+        BrowserLogStream stream = streams.get(driver);
+        return stream == null ? 0 : stream.lastSequence();
+    }
+
+    /**
+     * Attaches the buffered entries of the session to the running Allure test and clears the buffer.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void attachToAllure(WebDriver driver) {
+        List<Entry> entries = getEntries(driver);
+        if (!entries.isEmpty()) {
+            StringBuilder text = new StringBuilder();
+            for (Entry entry : entries) {
+                text.append(entry).append('\n');
+            }
+            Allure.addAttachment("Browser console and network log", "text/plain", text.toString(), ".log");
+        }
+        clear(driver);
+    }
+
+    /**
+     * Discards the buffered entries of the session, e.g. after a passing test.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void clear(WebDriver driver) {
+        BrowserLogStream stream = streams.get(driver);
+        if (stream != null) {
+            stream.reset();
+        }
+    }
+
+    private synchronized void add(String source, String level, long timestamp, String text) {
+        buffer[(int) (written % buffer.length)] = new Entry(written + 1, source, level, timestamp, text);
+        written++;
+    }
+
+    private synchronized List<Entry> snapshot() {
+        List<Entry> entries = new ArrayList<>();
+        for (long i = Math.max(cleared, written - buffer.length); i < written; i++) {
+            entries.add(buffer[(int) (i % buffer.length)]);
+        }
+        return entries;
+    }
+
+    private synchronized long lastSequence() {
+        return written;
+    }
+
+    // Sequence numbers keep counting so callers can still tell old entries from new ones
+    private synchronized void reset() {
+        cleared = written;
+    }
+
+    /**
+     * A single console message, JavaScript exception or failed request.
+     */
+    public static final class Entry {
+
+        private final long sequence;
+        private final String source;
+        private final String level;
+        private final long timestamp;
+        private final String text;
+
+        private Entry(long sequence, String source, String level, long timestamp, String text) {
+            this.sequence = sequence;
+            this.source = source;
+            this.level = level;
+            this.timestamp = timestamp;
+            this.text = text;
+        }
+
+        /** Returns the position of the entry in the session's stream, starting at 1. */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /** Returns "console", "exception" or "network". */
+        public String getSource() {
+            return source;
+        }
+
+        public String getLevel() {
+            return level;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public String toString() {
+            return Instant.ofEpochMilli(timestamp) + " [" + source + "/" + level + "] " + text;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package Selenium_Framework.base;
+
+import Selenium_Framework.logging.TestLog;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.bidi.HasBiDi;
+import org.openqa.selenium.bidi.browsingcontext.NavigationInfo;
+import org.openqa.selenium.bidi.module.BrowsingContextInspector;
+import org.openqa.selenium.bidi.module.Network;
+import org.openqa.selenium.bidi.network.BaseParameters;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts the requests a session has in flight, from BiDi network events, so
+ * waits can tell when the page has stopped talking to the server.
+ *
+ * A request is in flight from its {@code beforeRequestSent} event until its
+ * {@code responseCompleted} or {@code fetchError} event. Once a page has
+ * loaded, these are its XHR and fetch calls and whatever they pull in. A
+ * request that is held up by an authentication challenge is not counted, as
+ * it waits for the user rather than the network.
+ *
+ * Requests are kept per browsing context. When a context navigates, its
+ * requests from before the navigation are forgotten, and when it is closed,
+ * all of its requests are; a request whose final event never arrives thus
+ * cannot keep the session busy beyond the page it was made from. Requests
+ * that belong to no browsing context, e.g. those of service workers, are not
+ * counted. Like the other session services, the tracker only consumes events
+ * the browser pushes, so asking whether the session is idle costs no round
+ * trips.
+ *
+ * Tracking is enabled by default for BiDi-capable sessions;
+ * {@code -Dnetwork.tracking=false} switches it off.
+ */
+public class NetworkActivity {
+
+    private static final Map<WebDriver, NetworkActivity> trackers = new ConcurrentHashMap<>();
+
+    // Request ID -> the request's browsing context and browser timestamp
+    private final Map<String, Request> inFlight = new HashMap<>();
+    // Browsing context -> browser timestamp of its latest navigation
+    private final Map<String, Long> navigated = new HashMap<>();
+    private long lastChange = System.nanoTime();
+
+    private static final class Request {
+
+        private final String context;
+        private final long timestamp;
+
+        private Request(String context, long timestamp) {
+            this.context = context;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * Returns whether requests are tracked for new sessions.
+     *
+     * @return {@code true} unless {@code -Dnetwork.tracking=false} was given.
+     */
+    public static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty("network.tracking"));
+    }
+
+    /**
+     * Subscribes to the network events of the session.
+     * Drivers without BiDi support are left untouched.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void attach(WebDriver driver) {
+        if (!(driver instanceof HasBiDi) || ((HasBiDi) driver).maybeGetBiDi().isEmpty()) {
+            return;
+        }
+        NetworkActivity tracker = new NetworkActivity();
+        try {
+            Network network = new Network(driver);
+            network.onBeforeRequestSent(tracker::started);
+            network.onResponseCompleted(tracker::finished);
+            network.onFetchError(tracker::finished);
+            network.onAuthRequired(tracker::finished);
+            BrowsingContextInspector inspector = new BrowsingContextInspector(driver);
+            inspector.onNavigationStarted(tracker::navigationStarted);
+            inspector.onBrowsingContextDestroyed(context -> tracker.contextDestroyed(context.getId()));
+        } catch (WebDriverException e) {
+            // Network-idle waits fall back to their DOM conditions
+            TestLog.warn("Network activity tracking unavailable: " + e.getMessage());
+            return;
+        }
+        trackers.put(driver, tracker);
+    }
+
+    /**
+     * Stops tracking the session. The subscriptions end with the session itself.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void detach(WebDriver driver) {
+        trackers.remove(driver);
+    }
+
+    /**
+     * Returns the tracker of the session.
+     *
+     * @param driver The driver of the session.
+     * @return The tracker, or empty if the session's requests are not tracked.
+     */
+    public static Optional<NetworkActivity> of(WebDriver driver) {
+        return Optional.ofNullable(trackers.get(driver));
+    }
+
+    /**
+     * Returns the number of requests currently in flight.
+     *
+     * @return The request count.
+     */
+    public synchronized int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Returns whether no request has been in flight for the given quiet period.
+     * The period is never counted from before {@code sinceNanos}, so a wait that
+     * starts right after a click also covers requests whose events are still on
+     * their way.
+     *
+     * @param quiet How long the network must have been silent.
+     * @param sinceNanos The {@link System#nanoTime()} at which the caller started waiting.
+     * @return {@code true} if the session has been idle for at least the quiet period.
+     */
+    public synchronized boolean isIdle(Duration quiet, long sinceNanos) {
+        long silentSince = lastChange - sinceNanos > 0 ? lastChange : sinceNanos;
+        return inFlight.isEmpty() && System.nanoTime() - silentSince >= quiet.toNanos();
+    }
+
+    private synchronized void started(BaseParameters event) {
+        String context = event.getBrowsingContextId();
+        // Events of different modules may be delivered out of order, so the browser's timestamps decide
+        if (context == null || event.getTimestamp() < navigated.getOrDefault(context, Long.MIN_VALUE)) {
+            return;
+        }
+        // Redirects reuse the request ID, so a redirected request stays a single entry
+        inFlight.put(event.getRequest().getRequestId(), new Request(context, event.getTimestamp()));
+        lastChange = System.nanoTime();
+    }
+
+    private synchronized void finished(BaseParameters event) {
+        if (inFlight.remove(event.getRequest().getRequestId()) != null) {
+            lastChange = System.nanoTime();
+        }
+    }
+
+    private synchronized void navigationStarted(NavigationInfo navigation) {
+        String context = navigation.getBrowsingContextId();
+        navigated.merge(context, navigation.getTimestamp(), Math::max);
+        if (inFlight.values().removeIf(request -> request.context.equals(context)
+                && request.timestamp < navigation.getTimestamp())) {
+            lastChange = System.nanoTime();
+        }
+    }
+
+    private synchronized void contextDestroyed(String context) {
+        navigated.remove(context);
+        if (inFlight.values().removeIf(request -> request.context.equals(context))) {
+            lastChange = System.nanoTime();
+        }
+    }
+}
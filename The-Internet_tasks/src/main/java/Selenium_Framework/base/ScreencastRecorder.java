@@ -0,0 +1,300 @@
+package Selenium_Framework.base;
+
+import Selenium_Framework.logging.TestLog;
+import io.qameta.allure.Allure;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records a short screencast of a Chromium session into a fixed-size in-memory
+ * ring buffer, so that timing-related failures can be replayed instead of
+ * guessed from a single screenshot.
+ *
+ * Chrome pushes compressed JPEG frames through the DevTools
+ * {@code Page.startScreencast} API only when the page repaints. The recorder
+ * keeps the frames of the last {@code -Dscreencast.seconds} (default 10)
+ * seconds; when a test fails they are encoded into an animated GIF and attached
+ * to Allure, and when it passes they are simply dropped. Frames are buffered
+ * as the base64 text Chrome sends; they are only decoded and encoded when a
+ * failing test's GIF is written, never on the hot path.
+ *
+ * Recording is off by default and enabled with {@code -Dscreencast.enabled=true}.
+ * Overhead is tuned with {@code -Dscreencast.quality} (JPEG quality, default 40),
+ * {@code -Dscreencast.maxWidth}/{@code maxHeight} (default 800x600),
+ * {@code -Dscreencast.everyNthFrame} (default 2) and
+ * {@code -Dscreencast.maxBytes} (memory cap per session, default 16 MB, counted
+ * in buffered base64 characters).
+ */
+public class ScreencastRecorder {
+
+    private static final long WINDOW_MILLIS = Long.getLong("screencast.seconds", 10) * 1000;
+    private static final long MAX_BYTES = Long.getLong("screencast.maxBytes", 16L * 1024 * 1024);
+    private static final Map<WebDriver, ScreencastRecorder> recorders = new ConcurrentHashMap<>();
+
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private long bufferedBytes;
+    private long capturedFrames;
+    private long capturedBytes;
+    private long evictedFrames;
+    private long handlerNanos;
+    private long peakBufferedBytes;
+
+    /**
+     * Returns whether screencast recording is requested for new sessions.
+     *
+     * @return {@code true} if {@code -Dscreencast.enabled=true} was given.
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("screencast.enabled");
+    }
+
+    /**
+     * Starts the screencast of the session. Drivers without DevTools support are left untouched.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void start(WebDriver driver) {
+        if (!(driver instanceof HasDevTools)) {
+            return;
+        }
+        ScreencastRecorder recorder = new ScreencastRecorder();
+        try {
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            devTools.addListener(new Event<>("Page.screencastFrame", input -> input.read(Json.MAP_TYPE)),
+                    (Map<String, Object> frame) -> recorder.onFrame(devTools, frame));
+            devTools.send(startScreencast());
+        } catch (WebDriverException e) {
+            // Diagnostics must never keep a session from starting
+            TestLog.warn("Screencast unavailable: " + e.getMessage());
+            return;
+        }
+        recorders.put(driver, recorder);
+    }
+
+    /**
+     * Returns whether the session is being recorded.
+     *
+     * @param driver The driver of the session.
+     * @return {@code true} if the screencast of the session was started.
+     */
+    public static boolean isRecording(WebDriver driver) {
+        return recorders.containsKey(driver);
+    }
+
+    /**
+     * Continues the screencast in the tab the session's DevTools connection was just
+     * attached to. The frames buffered so far are kept.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void restart(WebDriver driver) {
+        if (!recorders.containsKey(driver)) {
+            return;
+        }
+        try {
+            ((HasDevTools) driver).getDevTools().send(startScreencast());
+        } catch (WebDriverException e) {
+            TestLog.warn("Screencast not continued in the new tab: " + e.getMessage());
+            recorders.remove(driver);
+        }
+    }
+
+    private static Command<Void> startScreencast() {
+        return new Command<>("Page.startScreencast", Map.of(
+                "format", "jpeg",
+                "quality", Integer.getInteger("screencast.quality", 40),
+                "maxWidth", Integer.getInteger("screencast.maxWidth", 800),
+                "maxHeight", Integer.getInteger("screencast.maxHeight", 600),
+                "everyNthFrame", Integer.getInteger("screencast.everyNthFrame", 2)));
+    }
+
+    /**
+     * Stops tracking the session. The screencast ends with the session itself.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void stop(WebDriver driver) {
+        recorders.remove(driver);
+    }
+
+    /**
+     * Drops the buffered frames of the session, e.g. after a passing test.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void discard(WebDriver driver) {
+        ScreencastRecorder recorder = recorders.get(driver);
+        if (recorder != null) {
+            recorder.clear();
+        }
+    }
+
+    /**
+     * Encodes the buffered frames of the session into an animated GIF, attaches it
+     * together with the capture statistics to the running Allure test and clears the buffer.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void attachToAllure(WebDriver driver) {
+        ScreencastRecorder recorder = recorders.get(driver);
+        if (recorder == null) {
+            return;
+        }
+        List<Frame> snapshot = recorder.drain();
+        Allure.addAttachment("Screencast statistics", recorder.getStatistics());
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        try {
+            Allure.addAttachment("Screencast (last " + WINDOW_MILLIS / 1000 + " s)", "image/gif",
+                    new ByteArrayInputStream(encodeGif(snapshot)), ".gif");
+        } catch (IOException e) {
+            Allure.addAttachment("Screencast", "Could not encode screencast: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the capture overhead of the session so far: frames and bytes
+     * received, frames evicted from the ring buffer, peak buffer size and the
+     * time spent handling frames.
+     *
+     * @param driver The driver of the session.
+     * @return A one-line summary, or an empty string if the session is not recorded.
+     */
+    public static String getStatistics(WebDriver driver) {
+        ScreencastRecorder recorder = recorders.get(driver);
+        return recorder == null ? "" : recorder.getStatistics();
+    }
+
+    private void onFrame(DevTools devTools, Map<String, Object> event) {
+        long begin = System.nanoTime();
+        // Chrome stops sending frames until each one is acknowledged; don't wait for the reply
+        devTools.send(new Command<Void>("Page.screencastFrameAck",
+                Map.of("sessionId", event.get("sessionId"))).doesNotSendResponse());
+        String jpeg = (String) event.get("data");
+        Object metadata = event.get("metadata");
+        Object timestamp = metadata instanceof Map ? ((Map<?, ?>) metadata).get("timestamp") : null;
+        long millis = timestamp instanceof Number
+                ? (long) (((Number) timestamp).doubleValue() * 1000)
+                : System.currentTimeMillis();
+        synchronized (this) {
+            frames.addLast(new Frame(millis, jpeg));
+            bufferedBytes += jpeg.length();
+            capturedFrames++;
+            capturedBytes += jpeg.length();
+            while (!frames.isEmpty()
+                    && (frames.peekFirst().timestamp < millis - WINDOW_MILLIS || bufferedBytes > MAX_BYTES)) {
+                bufferedBytes -= frames.removeFirst().jpeg.length();
+                evictedFrames++;
+            }
+            peakBufferedBytes = Math.max(peakBufferedBytes, bufferedBytes);
+            handlerNanos += System.nanoTime() - begin;
+        }
+    }
+
+    private synchronized List<Frame> drain() {
+        List<Frame> snapshot = new ArrayList<>(frames);
+        clear();
+        return snapshot;
+    }
+
+    private synchronized void clear() {
+        frames.clear();
+        bufferedBytes = 0;
+    }
+
+    private synchronized String getStatistics() {
+        return String.format("frames=%d capturedKB=%d evicted=%d peakBufferKB=%d handlerMs=%.1f avgFrameUs=%.0f",
+                capturedFrames, capturedBytes / 1024, evictedFrames, peakBufferedBytes / 1024,
+                handlerNanos / 1e6, capturedFrames == 0 ? 0.0 : handlerNanos / 1e3 / capturedFrames);
+    }
+
+    // Writes the frames as an endlessly looping GIF, keeping the original frame spacing
+    private static byte[] encodeGif(List<Frame> frames) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            writer.prepareWriteSequence(null);
+            for (int i = 0; i < frames.size(); i++) {
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(Base64.getDecoder().decode(frames.get(i).jpeg)));
+                if (image == null) {
+                    continue;
+                }
+                long next = i + 1 < frames.size() ? frames.get(i + 1).timestamp : frames.get(i).timestamp + 1000;
+                int delayCentiseconds = (int) Math.max(2, Math.min(500, (next - frames.get(i).timestamp) / 10));
+                IIOMetadata metadata = writer.getDefaultImageMetadata(
+                        ImageTypeSpecifier.createFromRenderedImage(image), null);
+                String format = metadata.getNativeMetadataFormatName();
+                IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+                IIOMetadataNode control = child(root, "GraphicControlExtension");
+                control.setAttribute("disposalMethod", "none");
+                control.setAttribute("userInputFlag", "FALSE");
+                control.setAttribute("transparentColorFlag", "FALSE");
+                control.setAttribute("delayTime", Integer.toString(delayCentiseconds));
+                control.setAttribute("transparentColorIndex", "0");
+                if (i == 0) {
+                    IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+                    loop.setAttribute("applicationID", "NETSCAPE");
+                    loop.setAttribute("authenticationCode", "2.0");
+                    loop.setUserObject(new byte[] {1, 0, 0});
+                    child(root, "ApplicationExtensions").appendChild(loop);
+                }
+                metadata.setFromTree(format, root);
+                writer.writeToSequence(new IIOImage(image, null, metadata), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static IIOMetadataNode child(IIOMetadataNode root, String name) {
+        for (int i = 0; i < root.getLength(); i++) {
+            if (root.item(i).getNodeName().equalsIgnoreCase(name)) {
+                return (IIOMetadataNode) root.item(i);
+            }
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        root.appendChild(node);
+        return node;
+    }
+
+    private static final class Frame {
+
+        private final long timestamp;
+        // Base64-encoded JPEG, exactly as received
+        private final String jpeg;
+
+        private Frame(long timestamp, String jpeg) {
+            this.timestamp = timestamp;
+            this.jpeg = jpeg;
+        }
+    }
+}
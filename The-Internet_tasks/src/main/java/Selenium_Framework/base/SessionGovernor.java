@@ -0,0 +1,244 @@
+package Selenium_Framework.base;
+
+import Selenium_Framework.logging.TestLog;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps track of the operating-system processes behind every WebDriver session
+ * (the driver executable and the browser it launched) and enforces a maximum
+ * resident memory and lifetime per session. A session that exceeds either
+ * limit has its whole process tree killed, so a single runaway browser cannot
+ * slow down or take down a long run. Sessions can outlive a single test (kept
+ * sessions, load-mode virtual users), so the lifetime and the reported peak
+ * memory are measured from the last {@link #beginTest(WebDriver)}, or from the
+ * launch for sessions that never call it.
+ *
+ * The governor also reaps driver processes that were orphaned by earlier runs
+ * or by sessions whose {@code quit()} never happened, and reports the peak
+ * memory of each test.
+ *
+ * Limits are read from {@code -Dgovernor.maxRssMb} (default 2048) and
+ * {@code -Dgovernor.maxLifetimeSeconds} (default 0); 0 disables a limit.
+ * Memory is read from {@code /proc}, so RSS limits are only enforced on Linux.
+ */
+public class SessionGovernor {
+
+    private static final Set<String> DRIVER_EXECUTABLES = Set.of(
+            "chromedriver", "chromedriver.exe", "geckodriver", "geckodriver.exe");
+
+    private static final long MAX_RSS_BYTES = Long.getLong("governor.maxRssMb", 2048) * 1024 * 1024;
+    private static final Duration MAX_LIFETIME = Duration.ofSeconds(Long.getLong("governor.maxLifetimeSeconds", 0));
+    private static final long POLL_MILLIS = Long.getLong("governor.pollMillis", 2000);
+
+    private static final Map<WebDriver, Session> sessions = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService monitor;
+
+    /**
+     * Creates a driver and attributes the processes it spawns to the new session.
+     * Creation is serialized so that concurrently started sessions are not mixed up.
+     *
+     * @param factory Creates the driver.
+     * @return The created driver.
+     */
+    public static synchronized WebDriver launch(Supplier<WebDriver> factory) {
+        Set<Long> before = childPids();
+        WebDriver driver = factory.get();
+        List<ProcessHandle> roots = ProcessHandle.current().children()
+                .filter(process -> !before.contains(process.pid()))
+                .collect(Collectors.toList());
+        sessions.put(driver, new Session(roots));
+        startMonitor();
+        return driver;
+    }
+
+    /**
+     * Stops tracking a session and kills whatever is left of its process tree.
+     * Call this after {@code quit()}, whether or not quitting succeeded.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void release(WebDriver driver) {
+        Session session = sessions.remove(driver);
+        if (session != null) {
+            session.kill();
+        }
+    }
+
+    /**
+     * Starts measuring the lifetime and peak memory of the session afresh, for a test
+     * that reuses a session kept from an earlier one.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void beginTest(WebDriver driver) {
+        Session session = sessions.get(driver);
+        if (session != null) {
+            session.restart();
+        }
+    }
+
+    /**
+     * Returns the highest resident memory observed for the session's process tree
+     * since the current test began.
+     *
+     * @param driver The driver of the session.
+     * @return The peak RSS in bytes, or -1 if the session is unknown or memory cannot be read.
+     */
+    public static long getPeakRssBytes(WebDriver driver) {
+        Session session = sessions.get(driver);
+        if (session == null) {
+            return -1;
+        }
+        session.sample();
+        return session.peakRssBytes;
+    }
+
+    /**
+     * Returns why the governor killed the session, if it did.
+     *
+     * @param driver The driver of the session.
+     * @return The reason, or empty if the session is still within its limits.
+     */
+    public static Optional<String> getTerminationReason(WebDriver driver) {
+        Session session = sessions.get(driver);
+        return session == null ? Optional.empty() : Optional.ofNullable(session.terminationReason);
+    }
+
+    /**
+     * Kills driver processes of the current user that no longer belong to a live
+     * session: either they were re-parented to init because their parent is gone,
+     * or they are children of this JVM that the governor does not track. Processes
+     * whose parent cannot be determined are left alone, as they may belong to
+     * another build or a developer's browser. Their browsers are killed with them.
+     *
+     * @return The number of driver processes that were reaped.
+     */
+    public static int reapOrphans() {
+        Optional<String> user = ProcessHandle.current().info().user();
+        Set<Long> tracked = sessions.values().stream()
+                .flatMap(session -> session.roots.stream())
+                .map(ProcessHandle::pid)
+                .collect(Collectors.toSet());
+        List<ProcessHandle> orphans = ProcessHandle.allProcesses()
+                .filter(process -> isDriverExecutable(process) && !tracked.contains(process.pid()))
+                .filter(process -> user.isEmpty() || user.equals(process.info().user()))
+                .filter(process -> process.parent()
+                        .map(parent -> parent.pid() == 1 || parent.pid() == ProcessHandle.current().pid())
+                        .orElse(false))
+                .collect(Collectors.toList());
+        orphans.forEach(SessionGovernor::killTree);
+        return orphans.size();
+    }
+
+    private static boolean isDriverExecutable(ProcessHandle process) {
+        return process.info().command()
+                .map(command -> Paths.get(command).getFileName().toString())
+                .filter(DRIVER_EXECUTABLES::contains)
+                .isPresent();
+    }
+
+    private static Set<Long> childPids() {
+        return ProcessHandle.current().children().map(ProcessHandle::pid).collect(Collectors.toSet());
+    }
+
+    private static void killTree(ProcessHandle root) {
+        root.descendants().forEach(ProcessHandle::destroyForcibly);
+        root.destroyForcibly();
+    }
+
+    private static synchronized void startMonitor() {
+        if (monitor == null) {
+            monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "session-governor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            monitor.scheduleWithFixedDelay(SessionGovernor::enforceLimits, POLL_MILLIS, POLL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void enforceLimits() {
+        for (Session session : sessions.values()) {
+            if (session.terminationReason != null) {
+                continue;
+            }
+            long rss = session.sample();
+            Duration age = Duration.ofNanos(System.nanoTime() - session.startNanos);
+            if (MAX_RSS_BYTES > 0 && rss > MAX_RSS_BYTES) {
+                session.terminationReason = "RSS " + rss / (1024 * 1024) + " MB exceeded limit of "
+                        + MAX_RSS_BYTES / (1024 * 1024) + " MB";
+            } else if (!MAX_LIFETIME.isZero() && age.compareTo(MAX_LIFETIME) > 0) {
+                session.terminationReason = "Lifetime exceeded limit of " + MAX_LIFETIME.getSeconds() + " s";
+            }
+            if (session.terminationReason != null) {
+                TestLog.warn("SessionGovernor killed a browser session: " + session.terminationReason);
+                session.kill();
+            }
+        }
+    }
+
+    // Resident set size from /proc/<pid>/status, or -1 where /proc is unavailable
+    private static long readRssBytes(ProcessHandle process) {
+        Path status = Paths.get("/proc", Long.toString(process.pid()), "status");
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> Long.parseLong(line.replaceAll("\\D", "")) * 1024)
+                    .findFirst()
+                    .orElse(0L);
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static final class Session {
+
+        private final List<ProcessHandle> roots;
+        private volatile long startNanos = System.nanoTime();
+        private volatile long peakRssBytes = -1;
+        private volatile String terminationReason;
+
+        private Session(List<ProcessHandle> roots) {
+            this.roots = roots;
+        }
+
+        private synchronized long sample() {
+            long total = -1;
+            for (ProcessHandle root : roots) {
+                for (ProcessHandle process : Stream.concat(Stream.of(root), root.descendants()).collect(Collectors.toList())) {
+                    long rss = readRssBytes(process);
+                    if (rss >= 0) {
+                        total = Math.max(total, 0) + rss;
+                    }
+                }
+            }
+            peakRssBytes = Math.max(peakRssBytes, total);
+            return total;
+        }
+
+        private synchronized void restart() {
+            startNanos = System.nanoTime();
+            peakRssBytes = -1;
+        }
+
+        private void kill() {
+            roots.forEach(SessionGovernor::killTree);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package Selenium_Framework.base;
+
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.Credentials;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.htmlunit.DefaultCredentialsProvider;
+import org.htmlunit.WebClient;
+import org.htmlunit.WebRequest;
+import org.htmlunit.WebResponse;
+import org.htmlunit.html.DomElement;
+import org.htmlunit.html.DomNode;
+import org.htmlunit.html.HtmlElement;
+import org.htmlunit.html.HtmlForm;
+import org.htmlunit.util.WebConnectionWrapper;
+import org.openqa.selenium.HasAuthentication;
+import org.openqa.selenium.UsernameAndPassword;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+import org.openqa.selenium.htmlunit.HtmlUnitWebElement;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A lightweight, HTTP-only {@link org.openqa.selenium.WebDriver} for checks that
+ * need no JavaScript, such as reading static text or following links.
+ * Pages are fetched with an HTTP client and parsed into a DOM, so navigation,
+ * cookies, basic authentication and element lookup work without starting a
+ * browser process. JavaScript is disabled, and every attempt to run a script
+ * fails immediately instead of silently returning a wrong result. So does a
+ * click or submit that only JavaScript would act on: an element with an inline
+ * event handler, a {@code javascript:} link, a form with an {@code onsubmit}
+ * handler, or, on a page that has scripts, an element without a default action
+ * of its own, such as a plain button.
+ *
+ * Selected with {@code BaseDriver.initializeDriver("http")}.
+ */
+public class StaticPageDriver extends HtmlUnitDriver implements HasAuthentication {
+
+    private static final Set<String> HANDLERS = Set.of("onclick", "onmousedown", "onmouseup", "ondblclick");
+    // Elements whose click does something without JavaScript: follow, submit, toggle or focus
+    private static final Set<String> DEFAULT_ACTIONS = Set.of(
+            "a", "area", "button", "input", "select", "option", "textarea", "label", "summary");
+
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+    // The URL of the request being sent on the current thread, for the credentials lookup
+    private final ThreadLocal<URL> requestUrl = new ThreadLocal<>();
+
+    public StaticPageDriver() {
+        super(false);
+    }
+
+    @Override
+    protected WebClient modifyWebClient(WebClient client) {
+        client.getOptions().setCssEnabled(true);
+        client.getOptions().setThrowExceptionOnFailingStatusCode(false);
+        client.setCredentialsProvider(new RegisteredCredentialsProvider());
+        new WebConnectionWrapper(client) {
+            @Override
+            public WebResponse getResponse(WebRequest request) throws IOException {
+                requestUrl.set(request.getUrl());
+                try {
+                    return super.getResponse(request);
+                } finally {
+                    requestUrl.remove();
+                }
+            }
+        };
+        return client;
+    }
+
+    /**
+     * Registers basic-auth credentials for every URI accepted by the predicate.
+     * The credentials are sent when a server answers with an authentication challenge.
+     *
+     * @param whenThisMatches Selects the URIs the credentials apply to.
+     * @param useTheseCredentials Supplies the credentials; only {@link UsernameAndPassword} is supported.
+     */
+    @Override
+    public void register(Predicate<URI> whenThisMatches, Supplier<org.openqa.selenium.Credentials> useTheseCredentials) {
+        registrations.add(new Registration(whenThisMatches, useTheseCredentials));
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        throw jsUnsupported();
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        throw jsUnsupported();
+    }
+
+    @Override
+    public void click(DomElement element, boolean directClick) {
+        String reason = needsJavaScriptToClick(element);
+        if (reason != null) {
+            throw jsUnsupported(reason);
+        }
+        super.click(element, directClick);
+    }
+
+    @Override
+    public void submit(HtmlUnitWebElement element) {
+        DomElement target = element.getElement();
+        HtmlForm form = target instanceof HtmlForm ? (HtmlForm) target
+                : target instanceof HtmlElement ? ((HtmlElement) target).getEnclosingForm() : null;
+        if (form != null && form.hasAttribute("onsubmit")) {
+            throw jsUnsupported("the form is submitted by its onsubmit handler");
+        }
+        super.submit(element);
+    }
+
+    // Returns why clicking the element only has an effect through JavaScript, or null if it works without
+    private static String needsJavaScriptToClick(DomElement element) {
+        boolean hasDefaultAction = false;
+        for (DomNode node = element; node instanceof DomElement; node = node.getParentNode()) {
+            DomElement current = (DomElement) node;
+            for (String handler : HANDLERS) {
+                if (current.hasAttribute(handler)) {
+                    return "<" + current.getTagName() + "> has an " + handler + " handler";
+                }
+            }
+            String tag = current.getTagName().toLowerCase();
+            if (("a".equals(tag) || "area".equals(tag))
+                    && current.getAttribute("href").trim().toLowerCase().startsWith("javascript:")) {
+                return "the link runs a javascript: URL";
+            }
+            if ("button".equals(tag) && "button".equalsIgnoreCase(current.getAttribute("type"))
+                    || "input".equals(tag) && "button".equalsIgnoreCase(current.getAttribute("type"))) {
+                continue;
+            }
+            if (DEFAULT_ACTIONS.contains(tag) && (!"a".equals(tag) || current.hasAttribute("href"))) {
+                hasDefaultAction = true;
+            }
+            if ("form".equals(tag) && current.hasAttribute("onsubmit") && submits(element)) {
+                return "the form is submitted by its onsubmit handler";
+            }
+        }
+        if (!hasDefaultAction && element.getPage().querySelector("script") != null) {
+            return "<" + element.getTagName() + "> has no action without the page's scripts";
+        }
+        return null;
+    }
+
+    private static boolean submits(DomElement element) {
+        String tag = element.getTagName().toLowerCase();
+        String type = element.getAttribute("type").toLowerCase();
+        return "button".equals(tag) && (type.isEmpty() || "submit".equals(type))
+                || "input".equals(tag) && ("submit".equals(type) || "image".equals(type));
+    }
+
+    private static UnsupportedOperationException jsUnsupported() {
+        return new UnsupportedOperationException(
+                "The \"http\" driver does not run JavaScript; use \"chrome\" or \"firefox\" for this test");
+    }
+
+    private static UnsupportedOperationException jsUnsupported(String reason) {
+        return new UnsupportedOperationException("The \"http\" driver does not run JavaScript, but " + reason
+                + "; use \"chrome\" or \"firefox\" for this test");
+    }
+
+    private static final class Registration {
+
+        private final Predicate<URI> predicate;
+        private final Supplier<org.openqa.selenium.Credentials> credentials;
+
+        private Registration(Predicate<URI> predicate, Supplier<org.openqa.selenium.Credentials> credentials) {
+            this.predicate = predicate;
+            this.credentials = credentials;
+        }
+    }
+
+    // Resolves HtmlUnit's authentication challenges against the registered predicates
+    private final class RegisteredCredentialsProvider extends DefaultCredentialsProvider {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public synchronized Credentials getCredentials(AuthScope scope) {
+            URI uri = challengedUri(scope);
+            for (Registration registration : registrations) {
+                if (registration.predicate.test(uri)) {
+                    org.openqa.selenium.Credentials supplied = registration.credentials.get();
+                    if (!(supplied instanceof UsernameAndPassword)) {
+                        throw new UnsupportedOperationException("Only UsernameAndPassword credentials are supported");
+                    }
+                    UsernameAndPassword user = (UsernameAndPassword) supplied;
+                    return new UsernamePasswordCredentials(user.username(), user.password());
+                }
+            }
+            return super.getCredentials(scope);
+        }
+
+        // The full URL of the challenged request, so predicates can match on the path; the
+        // scope's origin only when the challenge does not come from a request of this thread
+        private URI challengedUri(AuthScope scope) {
+            URL url = requestUrl.get();
+            if (url != null && url.getHost().equalsIgnoreCase(scope.getHost())) {
+                try {
+                    return url.toURI();
+                } catch (URISyntaxException e) {
+                    // Fall back to the origin
+                }
+            }
+            HttpHost origin = scope.getOrigin();
+            String protocol = origin == null ? "http" : origin.getSchemeName();
+            return URI.create(protocol + "://" + scope.getHost() + (scope.getPort() < 0 ? "" : ":" + scope.getPort()));
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package Selenium_Framework.base;
+
+import Selenium_Framework.logging.TestLog;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.bidi.HasBiDi;
+import org.openqa.selenium.bidi.browsingcontext.NavigationInfo;
+import org.openqa.selenium.bidi.module.BrowsingContextInspector;
+import org.openqa.selenium.bidi.module.Script;
+import org.openqa.selenium.bidi.script.ChannelValue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Keeps track of the open tabs of a session from BiDi browsing context events,
+ * so tab handling never has to ask the browser for its window handles.
+ *
+ * Tabs are kept in the order they were opened, together with their current URL
+ * and title. URLs come from the navigation events; titles are pushed by a
+ * preload script after every page load. Everything is updated by events the
+ * browser sends anyway, so reading the registry costs no round trips. Frames
+ * are ignored; only top-level browsing contexts count as tabs.
+ *
+ * The registry is enabled by default for BiDi-capable sessions;
+ * {@code -Dtabs.registry=false} switches it off.
+ */
+public class TabRegistry {
+
+    private static final String TITLE_CHANNEL = "tab-title";
+    private static final String TITLE_SCRIPT =
+            "function (channel) {"
+            + "  var send = function () { channel(document.title); };"
+            + "  addEventListener('DOMContentLoaded', send);"
+            + "  addEventListener('load', send);"
+            + "}";
+    private static final Map<WebDriver, TabRegistry> registries = new ConcurrentHashMap<>();
+
+    // Insertion order is opening order
+    private final Map<String, Tab> tabs = new LinkedHashMap<>();
+    private volatile String current;
+
+    /**
+     * Returns whether tabs are tracked for new sessions.
+     *
+     * @return {@code true} unless {@code -Dtabs.registry=false} was given.
+     */
+    public static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty("tabs.registry"));
+    }
+
+    /**
+     * Subscribes to the browsing context events of the session and registers its first tab.
+     * Drivers without BiDi support are left untouched.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void attach(WebDriver driver) {
+        if (!(driver instanceof HasBiDi) || ((HasBiDi) driver).maybeGetBiDi().isEmpty()) {
+            return;
+        }
+        TabRegistry registry = new TabRegistry();
+        try {
+            String first = driver.getWindowHandle();
+            registry.opened(first, "about:blank");
+            registry.current = first;
+            subscribe(driver, registry);
+        } catch (WebDriverException e) {
+            // Tab handling falls back to window handles
+            TestLog.warn("Tab registry unavailable: " + e.getMessage());
+            return;
+        }
+        registries.put(driver, registry);
+    }
+
+    private static void subscribe(WebDriver driver, TabRegistry registry) {
+        BrowsingContextInspector inspector = new BrowsingContextInspector(driver);
+        inspector.onBrowsingContextCreated(context -> {
+            if (context.getParentBrowsingContext() == null) {
+                registry.opened(context.getId(), context.getUrl());
+            }
+        });
+        inspector.onBrowsingContextDestroyed(context -> registry.closed(context.getId()));
+        inspector.onDomContentLoaded(registry::navigated);
+        inspector.onFragmentNavigated(registry::navigated);
+
+        Script script = new Script(driver);
+        script.addPreloadScript(TITLE_SCRIPT, List.of(new ChannelValue(TITLE_CHANNEL)));
+        script.onMessage(message -> {
+            if (TITLE_CHANNEL.equals(message.getChannel())) {
+                message.getSource().getBrowsingContext().ifPresent(id ->
+                        registry.titled(id, message.getData().getValue().map(String::valueOf).orElse("")));
+            }
+        });
+    }
+
+    /**
+     * Stops tracking the session. The subscriptions end with the session itself.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void detach(WebDriver driver) {
+        registries.remove(driver);
+    }
+
+    /**
+     * Returns the registry of the session.
+     *
+     * @param driver The driver of the session.
+     * @return The registry, or empty if the session's tabs are not tracked.
+     */
+    public static Optional<TabRegistry> of(WebDriver driver) {
+        return Optional.ofNullable(registries.get(driver));
+    }
+
+    /**
+     * Returns the open tabs in the order they were opened.
+     *
+     * @return A snapshot of the tabs.
+     */
+    public synchronized List<Tab> getTabs() {
+        return new ArrayList<>(tabs.values());
+    }
+
+    /**
+     * Waits until a tab matching the predicate is registered. Only the local registry is
+     * polled, so a tab that was just opened by a click is found as soon as its event arrives.
+     *
+     * @param predicate The condition the tab must meet.
+     * @param timeout How long to wait.
+     * @return The first matching tab in opening order, or empty if none appeared in time.
+     */
+    public synchronized Optional<Tab> await(Predicate<Tab> predicate, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            for (Tab tab : tabs.values()) {
+                if (predicate.test(tab)) {
+                    return Optional.of(tab);
+                }
+            }
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis <= 0) {
+                return Optional.empty();
+            }
+            try {
+                wait(remainingMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Waits until at least the given number of tabs is registered.
+     *
+     * @param count The number of tabs to wait for.
+     * @param timeout How long to wait.
+     * @return The tabs in opening order, which may be fewer than requested if the time ran out.
+     */
+    public synchronized List<Tab> awaitCount(int count, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (tabs.size() < count) {
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis <= 0) {
+                break;
+            }
+            try {
+                wait(remainingMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return getTabs();
+    }
+
+    /**
+     * Returns the handle of the tab WebDriver commands currently go to, as far as
+     * switches made through {@link #setCurrent(String)} are concerned. BrowserUtils
+     * and the navigation pipeline record their switches, so services such as
+     * {@link ThrottlingProfile} can tell the current tab without a round trip;
+     * switches made directly on the driver are not seen.
+     *
+     * @return The window handle, or {@code null} after the current tab was closed.
+     */
+    public String getCurrent() {
+        return current;
+    }
+
+    /**
+     * Records that WebDriver commands now go to the given tab.
+     *
+     * @param handle The window handle.
+     */
+    public void setCurrent(String handle) {
+        current = handle;
+    }
+
+    /**
+     * Forgets a tab immediately, e.g. right after closing it, without waiting for its event.
+     *
+     * @param handle The window handle of the closed tab.
+     */
+    public void forget(String handle) {
+        closed(handle);
+        if (handle.equals(current)) {
+            current = null;
+        }
+    }
+
+    private synchronized void opened(String id, String url) {
+        tabs.putIfAbsent(id, new Tab(id, url));
+        notifyAll();
+    }
+
+    private synchronized void closed(String id) {
+        tabs.remove(id);
+        notifyAll();
+    }
+
+    private synchronized void navigated(NavigationInfo navigation) {
+        Tab tab = tabs.get(navigation.getBrowsingContextId());
+        if (tab != null) {
+            tab.url = navigation.getUrl();
+            notifyAll();
+        }
+    }
+
+    private synchronized void titled(String id, String title) {
+        Tab tab = tabs.get(id);
+        if (tab != null) {
+            tab.title = title;
+            notifyAll();
+        }
+    }
+
+    /**
+     * One open tab. The URL and title follow the tab as it navigates.
+     */
+    public static final class Tab {
+
+        private final String handle;
+        private volatile String url;
+        private volatile String title = "";
+
+        private Tab(String handle, String url) {
+            this.handle = handle;
+            this.url = url;
+        }
+
+        /** Returns the window handle, which is also the BiDi browsing context ID. */
+        public String getHandle() {
+            return handle;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        @Override
+        public String toString() {
+            return handle + " " + url + " \"" + title + "\"";
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package Selenium_Framework.base;
+
+import Selenium_Framework.logging.TestLog;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named network and CPU throttling profiles, so that the functional flows can
+ * double as performance checks under realistic conditions.
+ *
+ * A profile is one name or several joined with {@code +}, e.g.
+ * {@code slow-4g+cpu-4x}. {@link BaseDriver} applies the profile given by
+ * {@code -Dthrottle.profile} to every new session through the DevTools
+ * {@code Network.emulateNetworkConditions} and
+ * {@code Emulation.setCPUThrottlingRate} commands, so only Chromium sessions
+ * can be throttled. DevTools throttles the tab the session was attached to
+ * when the profile was applied, not tabs opened later, so the profile is kept
+ * per session together with that tab, and moved along with the session's DevTools
+ * connection when it is attached to another tab (see {@link #moveTo}).
+ * {@code PerformanceUtils} tags every page timing with the profile of the tab
+ * the timing was taken in.
+ *
+ * Known profiles:
+ * <ul>
+ *   <li>{@code 3g}: 300 ms latency, 750 kbit/s down, 250 kbit/s up;</li>
+ *   <li>{@code slow-4g}: 150 ms latency, 1.6 Mbit/s down, 750 kbit/s up;</li>
+ *   <li>{@code cpu-4x}: CPU slowed down four times;</li>
+ *   <li>{@code none}: no throttling.</li>
+ * </ul>
+ */
+public class ThrottlingProfile {
+
+    public static final String NONE = "none";
+
+    private static final Map<String, Map<String, Object>> NETWORK = Map.of(
+            "3g", network(300, 750, 250),
+            "slow-4g", network(150, 1600, 750));
+    private static final Map<String, Integer> CPU = Map.of(
+            "cpu-4x", 4);
+
+    private static final Map<WebDriver, Applied> applied = new ConcurrentHashMap<>();
+
+    private static final class Applied {
+
+        private final String profile;
+        private final String handle;
+
+        private Applied(String profile, String handle) {
+            this.profile = profile;
+            this.handle = handle;
+        }
+    }
+
+    /**
+     * Returns whether new sessions are throttled.
+     *
+     * @return {@code true} if a profile other than {@code none} is given with {@code -Dthrottle.profile}.
+     */
+    public static boolean isEnabled() {
+        return !NONE.equals(getConfigured());
+    }
+
+    /**
+     * Returns the profile requested for new sessions.
+     *
+     * @return The value of {@code -Dthrottle.profile}, or {@code none}.
+     */
+    public static String getConfigured() {
+        return System.getProperty("throttle.profile", NONE).trim().toLowerCase();
+    }
+
+    /**
+     * Throttles the session with the given profile. Sessions without DevTools
+     * support are left unthrottled and keep reporting {@code none}.
+     *
+     * @param driver The driver of the session.
+     * @param profile The profile name, or several joined with {@code +}.
+     * @throws IllegalArgumentException if a name is unknown or two network profiles are combined.
+     */
+    public static void apply(WebDriver driver, String profile) {
+        List<Command<Void>> commands = commands(profile);
+        if (!(driver instanceof HasDevTools)) {
+            TestLog.warn("Throttling profile " + profile + " not applied: the session has no DevTools support");
+            return;
+        }
+        String handle;
+        try {
+            handle = driver.getWindowHandle();
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            commands.forEach(devTools::send);
+        } catch (WebDriverException e) {
+            // Unthrottled timings must not be reported under the profile's name
+            TestLog.warn("Throttling profile " + profile + " not applied: " + e.getMessage());
+            applied.remove(driver);
+            return;
+        }
+        applied.put(driver, new Applied(profile, handle));
+    }
+
+    /**
+     * Returns whether the session is throttled.
+     *
+     * @param driver The driver of the session.
+     * @return {@code true} if a profile was applied to one of the session's tabs.
+     */
+    public static boolean isApplied(WebDriver driver) {
+        return applied.containsKey(driver);
+    }
+
+    /**
+     * Throttles another tab of the session with its profile instead of the current one.
+     * The session's DevTools connection must already be attached to that tab, which
+     * leaves the previous tab unthrottled.
+     *
+     * @param driver The driver of the session.
+     * @param handle The window handle of the tab the DevTools connection is now attached to.
+     */
+    public static void moveTo(WebDriver driver, String handle) {
+        Applied current = applied.get(driver);
+        if (current == null) {
+            return;
+        }
+        try {
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            commands(current.profile).forEach(devTools::send);
+        } catch (WebDriverException e) {
+            TestLog.warn("Throttling profile " + current.profile + " not moved to the new tab: " + e.getMessage());
+            applied.remove(driver);
+            return;
+        }
+        applied.put(driver, new Applied(current.profile, handle));
+    }
+
+    // The DevTools commands that throttle a tab with the profile
+    private static List<Command<Void>> commands(String profile) {
+        Map<String, Object> network = null;
+        Integer cpuRate = null;
+        for (String name : profile.split("\\+")) {
+            name = name.trim();
+            if (NETWORK.containsKey(name)) {
+                if (network != null) {
+                    throw new IllegalArgumentException("Only one network profile can be applied: " + profile);
+                }
+                network = NETWORK.get(name);
+            } else if (CPU.containsKey(name)) {
+                cpuRate = CPU.get(name);
+            } else if (!NONE.equals(name)) {
+                throw new IllegalArgumentException("Unknown throttling profile: " + name);
+            }
+        }
+        return List.of(
+                new Command<Void>("Network.enable", Map.of()),
+                new Command<Void>("Network.emulateNetworkConditions", network != null ? network : network(0, -1, -1)),
+                new Command<Void>("Emulation.setCPUThrottlingRate", Map.of("rate", cpuRate != null ? cpuRate : 1)));
+    }
+
+    /**
+     * Returns the profile the session's current tab is throttled with.
+     * The current tab is taken from the session's {@link TabRegistry} when it has one,
+     * so switches must go through {@code BrowserUtils}; otherwise the browser is asked.
+     *
+     * @param driver The driver of the session.
+     * @return The profile, or {@code none} if the session is not throttled or
+     *         has moved on to a tab the profile was not applied to.
+     */
+    public static String getProfile(WebDriver driver) {
+        Applied current = applied.get(driver);
+        if (current == null) {
+            return NONE;
+        }
+        Optional<TabRegistry> registry = TabRegistry.of(driver);
+        if (registry.isPresent()) {
+            // Known locally, so tagging a timing sample costs no round trip
+            return current.handle.equals(registry.get().getCurrent()) ? current.profile : NONE;
+        }
+        try {
+            return current.handle.equals(driver.getWindowHandle()) ? current.profile : NONE;
+        } catch (WebDriverException e) {
+            // No current tab to speak of, so nothing was measured under the profile either
+            return NONE;
+        }
+    }
+
+    /**
+     * Forgets the session, e.g. after it was quit.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void release(WebDriver driver) {
+        applied.remove(driver);
+    }
+
+    // Latency in ms and throughput in kbit/s; DevTools expects bytes per second, -1 disables the limit
+    private static Map<String, Object> network(int latencyMillis, int downloadKbps, int uploadKbps) {
+        Map<String, Object> conditions = new LinkedHashMap<>();
+        conditions.put("offline", false);
+        conditions.put("latency", latencyMillis);
+        conditions.put("downloadThroughput", downloadKbps < 0 ? -1 : downloadKbps * 1000 / 8);
+        conditions.put("uploadThroughput", uploadKbps < 0 ? -1 : uploadKbps * 1000 / 8);
+        return conditions;
+    }
+}
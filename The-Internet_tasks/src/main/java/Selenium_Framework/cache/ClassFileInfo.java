@@ -0,0 +1,311 @@
+package Selenium_Framework.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A minimal reader for compiled {@code .class} files. It extracts exactly what
+ * the result cache needs to fingerprint a test: the bytecode of every method,
+ * the constants its instructions use, the classes it refers to, and the
+ * methods of the same class it calls.
+ *
+ * Instructions only hold indexes into the constant pool, so two versions of a
+ * method that differ in a string literal or a locator can have identical
+ * bytecode. The constants are therefore resolved to text, including the
+ * bootstrap methods and arguments of {@code invokedynamic} instructions, which
+ * carry string concatenation templates and the implementation methods of
+ * lambdas and method references. Those implementation methods count as
+ * calls, so lambda bodies are followed like any other helper.
+ */
+final class ClassFileInfo {
+
+    private final String className;
+    private final Map<String, byte[]> methodCode = new HashMap<>();
+    private final Map<String, Set<String>> methodClassRefs = new HashMap<>();
+    private final Map<String, Set<String>> methodOwnCalls = new HashMap<>();
+    private final Map<String, List<String>> methodConstants = new HashMap<>();
+    private final Set<String> classRefs = new LinkedHashSet<>();
+
+    private final Object[] pool;
+    private final byte[] tags;
+    // Per bootstrap method: the method handle index followed by the argument indexes
+    private final List<int[]> bootstrapMethods = new ArrayList<>();
+
+    private ClassFileInfo(DataInputStream in) throws IOException {
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+
+        int count = in.readUnsignedShort();
+        pool = new Object[count];
+        tags = new byte[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            tags[i] = (byte) tag;
+            switch (tag) {
+                case 1: pool[i] = in.readUTF(); break;
+                case 3: pool[i] = in.readInt(); break;
+                case 4: pool[i] = in.readFloat(); break;
+                case 5: pool[i] = in.readLong(); i++; break;
+                case 6: pool[i] = in.readDouble(); i++; break;
+                case 7: case 8: case 16: case 19: case 20: pool[i] = new int[] {in.readUnsignedShort()}; break;
+                case 9: case 10: case 11: case 12: case 17: case 18:
+                    pool[i] = new int[] {in.readUnsignedShort(), in.readUnsignedShort()};
+                    break;
+                case 15: pool[i] = new int[] {in.readUnsignedByte(), in.readUnsignedShort()}; break;
+                default: throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        for (int i = 1; i < count; i++) {
+            if (tags[i] == 7) {
+                classRefs.add(utf8(((int[]) pool[i])[0]));
+            }
+        }
+
+        in.readUnsignedShort();
+        className = className(in.readUnsignedShort());
+        in.readUnsignedShort();
+        in.skipBytes(2 * in.readUnsignedShort());
+
+        int fields = in.readUnsignedShort();
+        for (int i = 0; i < fields; i++) {
+            in.skipBytes(6);
+            skipAttributes(in);
+        }
+
+        int methods = in.readUnsignedShort();
+        for (int i = 0; i < methods; i++) {
+            in.readUnsignedShort();
+            String key = utf8(in.readUnsignedShort()) + utf8(in.readUnsignedShort());
+            int attributes = in.readUnsignedShort();
+            for (int a = 0; a < attributes; a++) {
+                String name = utf8(in.readUnsignedShort());
+                byte[] attribute = new byte[in.readInt()];
+                in.readFully(attribute);
+                if ("Code".equals(name)) {
+                    DataInputStream codeIn = new DataInputStream(new ByteArrayInputStream(attribute));
+                    codeIn.skipBytes(4);
+                    byte[] code = new byte[codeIn.readInt()];
+                    codeIn.readFully(code);
+                    methodCode.put(key, code);
+                }
+            }
+        }
+
+        int attributes = in.readUnsignedShort();
+        for (int a = 0; a < attributes; a++) {
+            String name = utf8(in.readUnsignedShort());
+            int length = in.readInt();
+            if (!"BootstrapMethods".equals(name)) {
+                in.skipBytes(length);
+                continue;
+            }
+            int bootstraps = in.readUnsignedShort();
+            for (int b = 0; b < bootstraps; b++) {
+                int handle = in.readUnsignedShort();
+                int arguments = in.readUnsignedShort();
+                int[] bootstrap = new int[1 + arguments];
+                bootstrap[0] = handle;
+                for (int arg = 1; arg <= arguments; arg++) {
+                    bootstrap[arg] = in.readUnsignedShort();
+                }
+                bootstrapMethods.add(bootstrap);
+            }
+        }
+
+        // Only now that the bootstrap methods are known can invokedynamic be resolved
+        for (Map.Entry<String, byte[]> method : methodCode.entrySet()) {
+            scanInstructions(method.getKey(), method.getValue());
+        }
+    }
+
+    /**
+     * Parses a class file.
+     *
+     * @param bytes The contents of the {@code .class} file.
+     * @return The parsed information.
+     * @throws IOException if the bytes are not a valid class file.
+     */
+    static ClassFileInfo parse(byte[] bytes) throws IOException {
+        return new ClassFileInfo(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    /** Returns the internal name of the class, e.g. {@code tests/HerokuAppTests}. */
+    String getClassName() {
+        return className;
+    }
+
+    /** Returns the keys (name + descriptor) of all methods with bytecode. */
+    Set<String> getMethodKeys() {
+        return methodCode.keySet();
+    }
+
+    /** Returns the bytecode of a method, or {@code null} if it has none. */
+    byte[] getCode(String methodKey) {
+        return methodCode.get(methodKey);
+    }
+
+    /** Returns the internal names of the classes referenced by a method's instructions. */
+    Set<String> getClassRefs(String methodKey) {
+        return methodClassRefs.getOrDefault(methodKey, Set.of());
+    }
+
+    /**
+     * Returns the constants a method's instructions use, resolved to text, in instruction order.
+     * Literals, member references and {@code invokedynamic} call sites are all included.
+     */
+    List<String> getConstants(String methodKey) {
+        return methodConstants.getOrDefault(methodKey, List.of());
+    }
+
+    /** Returns the keys of methods of the same class that a method calls, including lambda bodies. */
+    Set<String> getOwnCalls(String methodKey) {
+        return methodOwnCalls.getOrDefault(methodKey, Set.of());
+    }
+
+    /** Returns every class referenced anywhere in the class file. */
+    Set<String> getClassRefs() {
+        return classRefs;
+    }
+
+    private void scanInstructions(String methodKey, byte[] code) {
+        Set<String> refs = new LinkedHashSet<>();
+        Set<String> ownCalls = new LinkedHashSet<>();
+        List<String> constants = new ArrayList<>();
+        int pc = 0;
+        while (pc < code.length) {
+            int opcode = code[pc] & 0xFF;
+            int length = instructionLength(code, pc, opcode);
+            int index = -1;
+            if (opcode == 0x12) {
+                index = code[pc + 1] & 0xFF;
+            } else if (opcode == 0x13 || opcode == 0x14 || (opcode >= 0xB2 && opcode <= 0xBB) || opcode == 0xBD
+                    || opcode == 0xC0 || opcode == 0xC1 || opcode == 0xC5) {
+                index = ((code[pc + 1] & 0xFF) << 8) | (code[pc + 2] & 0xFF);
+            }
+            if (index > 0 && index < pool.length) {
+                constants.add(resolve(index, refs, ownCalls));
+            }
+            pc += length;
+        }
+        methodClassRefs.put(methodKey, refs);
+        methodOwnCalls.put(methodKey, ownCalls);
+        methodConstants.put(methodKey, constants);
+    }
+
+    // Describes a constant as text and collects the classes and own methods it refers to
+    private String resolve(int index, Set<String> refs, Set<String> ownCalls) {
+        int tag = tags[index];
+        switch (tag) {
+            case 1:
+                return utf8(index);
+            case 3: case 4: case 5: case 6:
+                return tag + ":" + pool[index];
+            case 7: {
+                String name = utf8(((int[]) pool[index])[0]);
+                refs.add(name);
+                return "class " + name;
+            }
+            case 8:
+                return "string " + utf8(((int[]) pool[index])[0]);
+            case 9: case 10: case 11: {
+                int[] member = (int[]) pool[index];
+                String owner = className(member[0]);
+                refs.add(owner);
+                int[] nameAndType = (int[]) pool[member[1]];
+                String key = utf8(nameAndType[0]) + utf8(nameAndType[1]);
+                if ((tag == 10 || tag == 11) && owner.equals(className)) {
+                    ownCalls.add(key);
+                }
+                return owner + "." + key;
+            }
+            case 12: {
+                int[] nameAndType = (int[]) pool[index];
+                return utf8(nameAndType[0]) + utf8(nameAndType[1]);
+            }
+            case 15: {
+                int[] handle = (int[]) pool[index];
+                return "handle " + handle[0] + " " + resolve(handle[1], refs, ownCalls);
+            }
+            case 16:
+                return "type " + utf8(((int[]) pool[index])[0]);
+            case 17: case 18: {
+                int[] dynamic = (int[]) pool[index];
+                StringBuilder text = new StringBuilder(tag == 18 ? "indy " : "condy ")
+                        .append(resolve(dynamic[1], refs, ownCalls));
+                if (dynamic[0] < bootstrapMethods.size()) {
+                    for (int argument : bootstrapMethods.get(dynamic[0])) {
+                        text.append(' ').append(resolve(argument, refs, ownCalls));
+                    }
+                }
+                return text.toString();
+            }
+            default:
+                return tag + ":" + utf8(((int[]) pool[index])[0]);
+        }
+    }
+
+    private static int instructionLength(byte[] code, int pc, int opcode) {
+        switch (opcode) {
+            case 0x10: case 0x12: case 0xA9: case 0xBC:
+                return 2;
+            case 0x11: case 0x13: case 0x14: case 0x84: case 0xBB: case 0xBD: case 0xC0: case 0xC1:
+            case 0xC6: case 0xC7:
+                return 3;
+            case 0xC5:
+                return 4;
+            case 0xB9: case 0xBA: case 0xC8: case 0xC9:
+                return 5;
+            case 0xC4:
+                return (code[pc + 1] & 0xFF) == 0x84 ? 6 : 4;
+            case 0xAA: {
+                int base = pc + 1 + ((4 - (pc + 1) % 4) % 4);
+                int low = readInt(code, base + 4);
+                int high = readInt(code, base + 8);
+                return base - pc + 12 + 4 * (high - low + 1);
+            }
+            case 0xAB: {
+                int base = pc + 1 + ((4 - (pc + 1) % 4) % 4);
+                return base - pc + 8 + 8 * readInt(code, base + 4);
+            }
+            default:
+                if ((opcode >= 0x15 && opcode <= 0x19) || (opcode >= 0x36 && opcode <= 0x3A)) {
+                    return 2;
+                }
+                if ((opcode >= 0x99 && opcode <= 0xA8) || (opcode >= 0xB2 && opcode <= 0xB8)) {
+                    return 3;
+                }
+                return 1;
+        }
+    }
+
+    private static int readInt(byte[] code, int offset) {
+        return ((code[offset] & 0xFF) << 24) | ((code[offset + 1] & 0xFF) << 16)
+                | ((code[offset + 2] & 0xFF) << 8) | (code[offset + 3] & 0xFF);
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributes = in.readUnsignedShort();
+        for (int a = 0; a < attributes; a++) {
+            in.readUnsignedShort();
+            in.skipBytes(in.readInt());
+        }
+    }
+
+    private String className(int classIndex) {
+        return utf8(((int[]) pool[classIndex])[0]);
+    }
+
+    private String utf8(int index) {
+        return (String) pool[index];
+    }
+}
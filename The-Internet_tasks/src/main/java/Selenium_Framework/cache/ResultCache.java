@@ -0,0 +1,333 @@
+package Selenium_Framework.cache;
+
+import Selenium_Framework.logging.TestLog;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A build-cache style store of passing test results. Each passing test is
+ * stored with a fingerprint made of:
+ * <ul>
+ *   <li>the bytecode of the test method, the private helpers and lambda bodies
+ *       it calls and the test class constructor (where the locators are
+ *       initialized), together with the literals, locators and other constants
+ *       their instructions use;</li>
+ *   <li>the class files of every {@code Selenium_Framework} class the test uses,
+ *       followed transitively;</li>
+ *   <li>a hash of each fixture page the test navigated to.</li>
+ * </ul>
+ * When a later run computes the same fingerprint, the previous passing result
+ * is reused and the test does not start a browser at all. Results are stored
+ * per browser and base URL, and an entry is only reused if every page it
+ * recorded lies under the current base URL.
+ *
+ * The cache is meant for runs against a pinned local fixture and is off by
+ * default. Enable it with {@code -Dcache.enabled=true}; {@code -Dcache.force=true}
+ * forces a full run while still refreshing the stored results. Results are kept
+ * in {@code -Dcache.file} (default {@code .test-cache/result-cache.json}).
+ */
+public class ResultCache {
+
+    private static final String FRAMEWORK_PACKAGE = "Selenium_Framework/";
+    private static final Path CACHE_FILE = Paths.get(System.getProperty("cache.file", ".test-cache/result-cache.json"));
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private static final ThreadLocal<List<String>> navigations = ThreadLocal.withInitial(ArrayList::new);
+    private static final ThreadLocal<Boolean> reused = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<String> configuration = ThreadLocal.withInitial(() -> "");
+    private static Map<String, Object> entries;
+
+    /**
+     * Returns whether the result cache is enabled for this run.
+     *
+     * @return {@code true} if {@code -Dcache.enabled=true} was given.
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("cache.enabled");
+    }
+
+    /**
+     * Starts tracking a test on the current thread and decides whether its
+     * previous passing result can be reused.
+     *
+     * @param testMethod The test method about to run.
+     * @param browser The browser the test runs on, as passed to {@code BaseDriver.initializeDriver}.
+     * @param baseUrl The base URL of the site under test.
+     * @return {@code true} if the test is unchanged since it last passed and can be skipped.
+     */
+    public static boolean beginTest(Method testMethod, String browser, String baseUrl) {
+        navigations.get().clear();
+        reused.set(false);
+        configuration.set(browser + " " + baseUrl);
+        if (!isEnabled() || Boolean.getBoolean("cache.force")) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> entry = (Map<String, Object>) load().get(key(testMethod));
+        if (entry == null) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        List<String> urls = (List<String>) entry.get("urls");
+        // Pages of another site mean the entry does not describe a run against this one
+        if (!urls.stream().allMatch(url -> url.startsWith(baseUrl))) {
+            return false;
+        }
+        boolean hit = entry.get("fingerprint").equals(fingerprint(testMethod, urls));
+        reused.set(hit);
+        return hit;
+    }
+
+    /**
+     * Returns whether the test running on the current thread reuses a cached result.
+     *
+     * @return {@code true} if {@link #beginTest(Method, String, String)} found an unchanged passing result.
+     */
+    public static boolean isReused() {
+        return reused.get();
+    }
+
+    /**
+     * Remembers a URL the running test navigated to, so the fixture page becomes part of its fingerprint.
+     *
+     * @param url The URL that was loaded.
+     */
+    public static void recordNavigation(String url) {
+        if (isEnabled() && !navigations.get().contains(url)) {
+            navigations.get().add(url);
+        }
+    }
+
+    /**
+     * Stores the fingerprint of a test that just passed.
+     *
+     * @param testMethod The test method that passed.
+     * @throws IOException if the cache file cannot be written.
+     */
+    public static void recordPass(Method testMethod) throws IOException {
+        if (!isEnabled() || isReused()) {
+            return;
+        }
+        List<String> urls = new ArrayList<>(navigations.get());
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("fingerprint", fingerprint(testMethod, urls));
+        entry.put("urls", urls);
+        entry.put("passedAt", Instant.now().toString());
+        synchronized (ResultCache.class) {
+            load().put(key(testMethod), entry);
+            Files.createDirectories(CACHE_FILE.toAbsolutePath().getParent());
+            Files.writeString(CACHE_FILE, new Json().toJson(entries), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Forgets the stored result of a test, e.g. after it failed.
+     *
+     * @param testMethod The test method.
+     * @throws IOException if the cache file cannot be written.
+     */
+    public static void invalidate(Method testMethod) throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (ResultCache.class) {
+            if (load().remove(key(testMethod)) != null) {
+                Files.writeString(CACHE_FILE, new Json().toJson(entries), StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    private static synchronized Map<String, Object> load() {
+        if (entries == null) {
+            entries = new LinkedHashMap<>();
+            if (Files.exists(CACHE_FILE)) {
+                try {
+                    entries.putAll(new Json().toType(Files.readString(CACHE_FILE), Json.MAP_TYPE));
+                } catch (IOException | RuntimeException e) {
+                    TestLog.warn("Ignoring unreadable result cache " + CACHE_FILE + ": " + e.getMessage());
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static String key(Method testMethod) {
+        return testMethod.getDeclaringClass().getName() + "#" + testMethod.getName() + " " + configuration.get();
+    }
+
+    /**
+     * Computes the fingerprint of a test method for the given fixture pages.
+     *
+     * @param testMethod The test method.
+     * @param urls The fixture pages the test navigates to.
+     * @return The hex-encoded SHA-256 fingerprint.
+     */
+    public static String fingerprint(Method testMethod, List<String> urls) {
+        MessageDigest digest = sha256();
+        try {
+            ClassLoader loader = testMethod.getDeclaringClass().getClassLoader();
+            ClassFileInfo testClass = ClassFileInfo.parse(classBytes(loader, testMethod.getDeclaringClass().getName().replace('.', '/')));
+
+            // The test method, its set-up/tear-down, the helpers and lambdas of its own class that they call, and the constructor
+            Set<String> methods = new TreeSet<>();
+            Deque<String> pending = new ArrayDeque<>();
+            pending.add(testMethod.getName() + methodDescriptor(testMethod));
+            for (Method method : testMethod.getDeclaringClass().getDeclaredMethods()) {
+                if (isConfigurationMethod(method)) {
+                    pending.add(method.getName() + methodDescriptor(method));
+                }
+            }
+            testClass.getMethodKeys().stream().filter(m -> m.startsWith("<init>") || m.startsWith("<clinit>")).forEach(pending::add);
+            Set<String> frameworkRefs = new TreeSet<>();
+            while (!pending.isEmpty()) {
+                String method = pending.poll();
+                if (testClass.getCode(method) == null || !methods.add(method)) {
+                    continue;
+                }
+                pending.addAll(testClass.getOwnCalls(method));
+                testClass.getClassRefs(method).stream().filter(c -> c.startsWith(FRAMEWORK_PACKAGE)).forEach(frameworkRefs::add);
+            }
+            for (String method : methods) {
+                digest.update(method.getBytes(StandardCharsets.UTF_8));
+                digest.update(testClass.getCode(method));
+                // The instructions only index the constant pool; the constants carry the literals and locators
+                for (String constant : testClass.getConstants(method)) {
+                    digest.update(constant.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                }
+            }
+
+            // Every framework class reachable from those methods
+            for (String frameworkClass : frameworkClosure(loader, frameworkRefs)) {
+                digest.update(frameworkClass.getBytes(StandardCharsets.UTF_8));
+                digest.update(classBytes(loader, frameworkClass));
+            }
+        } catch (IOException e) {
+            // An unreadable class can never match a stored fingerprint
+            digest.update(("unreadable:" + e.getMessage()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        // The fixture pages
+        for (String url : urls) {
+            digest.update(url.getBytes(StandardCharsets.UTF_8));
+            digest.update(pageHash(url));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // TestNG @Before*/@After* methods, detected by name so the framework does not depend on TestNG
+    private static boolean isConfigurationMethod(Method method) {
+        return Arrays.stream(method.getAnnotations())
+                .map(annotation -> annotation.annotationType().getName())
+                .anyMatch(name -> name.startsWith("org.testng.annotations.Before")
+                        || name.startsWith("org.testng.annotations.After"));
+    }
+
+    private static Set<String> frameworkClosure(ClassLoader loader, Set<String> roots) throws IOException {
+        Set<String> closure = new TreeSet<>();
+        Deque<String> pending = new ArrayDeque<>(roots);
+        while (!pending.isEmpty()) {
+            String name = pending.poll();
+            if (!closure.add(name)) {
+                continue;
+            }
+            for (String ref : ClassFileInfo.parse(classBytes(loader, name)).getClassRefs()) {
+                if (ref.startsWith(FRAMEWORK_PACKAGE) && !closure.contains(ref)) {
+                    pending.add(ref);
+                }
+            }
+        }
+        return closure;
+    }
+
+    private static byte[] pageHash(String url) {
+        try {
+            HttpResponse<byte[]> response = HTTP.send(
+                    HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(10)).GET().build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            MessageDigest digest = sha256();
+            digest.update(Integer.toString(response.statusCode()).getBytes(StandardCharsets.UTF_8));
+            digest.update(response.body());
+            return digest.digest();
+        } catch (IOException | RuntimeException e) {
+            return ("unreachable:" + e).getBytes(StandardCharsets.UTF_8);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted".getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] classBytes(ClassLoader loader, String internalName) throws IOException {
+        try (InputStream in = loader.getResourceAsStream(internalName + ".class")) {
+            if (in == null) {
+                throw new IOException("Class file not found: " + internalName);
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    private static String methodDescriptor(Method method) {
+        StringBuilder descriptor = new StringBuilder("(");
+        for (Class<?> parameter : method.getParameterTypes()) {
+            descriptor.append(typeDescriptor(parameter));
+        }
+        return descriptor.append(')').append(typeDescriptor(method.getReturnType())).toString();
+    }
+
+    private static String typeDescriptor(Class<?> type) {
+        if (type.isArray()) {
+            return type.getName().replace('.', '/');
+        }
+        if (type.isPrimitive()) {
+            Map<Class<?>, String> primitives = new HashMap<>();
+            primitives.put(void.class, "V");
+            primitives.put(boolean.class, "Z");
+            primitives.put(byte.class, "B");
+            primitives.put(char.class, "C");
+            primitives.put(short.class, "S");
+            primitives.put(int.class, "I");
+            primitives.put(long.class, "J");
+            primitives.put(float.class, "F");
+            primitives.put(double.class, "D");
+            return primitives.get(type);
+        }
+        return "L" + type.getName().replace('.', '/') + ";";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package Selenium_Framework.load;
+
+import Selenium_Framework.base.BaseDriver;
+import Selenium_Framework.base.SessionGovernor;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays existing test methods as load-test scenarios across N concurrent
+ * headless browser sessions. Each virtual user owns one browser, starts after
+ * its share of the ramp-up period and then executes the scenarios round-robin
+ * until the duration has elapsed. A shared pacer keeps the combined start rate
+ * at the target rate.
+ *
+ * The target must be local (loopback, private IPv4 or unique-local IPv6 address) so that the
+ * suite can never be pointed at a third-party site by accident. The tests read
+ * the target from {@code -DbaseUrl}.
+ *
+ * Run with:
+ * <pre>
+ * mvn -Pload test-compile exec:java -DbaseUrl=http://localhost:7080 \
+ *     -Dload.scenarios=TC2_Add_Remove_Elements,TC10_DropDown,TC14_DynamicLoading1 \
+ *     -Dload.users=5 -Dload.rampUp=10 -Dload.rate=2 -Dload.duration=60
+ * </pre>
+ */
+public class LoadRunner {
+
+    private final Class<?> testClass;
+    private final List<Method> scenarios = new ArrayList<>();
+    private final String browser;
+    private final int users;
+    private final int rampUpSeconds;
+    private final double ratePerSecond;
+    private final int durationSeconds;
+    private final Map<String, StepStats> stats = new LinkedHashMap<>();
+    private final AtomicLong nextStartNanos = new AtomicLong();
+    // The scenario each virtual user is executing; whoever removes the entry records the result
+    private final Map<Integer, Running> running = new ConcurrentHashMap<>();
+
+    private static final class Running {
+
+        private final Method scenario;
+        private final long beginNanos;
+
+        private Running(Method scenario, long beginNanos) {
+            this.scenario = scenario;
+            this.beginNanos = beginNanos;
+        }
+    }
+
+    /**
+     * Creates a load runner for the given test methods.
+     *
+     * @param testClass The test class that declares the scenarios; it must have a no-argument constructor.
+     * @param scenarioNames The names of the public no-argument test methods to replay.
+     * @param browser The browser to start for each virtual user, "chrome" or "firefox".
+     * @param users The number of concurrent sessions.
+     * @param rampUpSeconds The period over which the sessions are started.
+     * @param ratePerSecond The combined scenario start rate, or 0 to run as fast as possible.
+     * @param durationSeconds How long new scenarios are started, measured from the first session.
+     * @throws NoSuchMethodException if a scenario name does not match a method of the test class.
+     */
+    public LoadRunner(Class<?> testClass, List<String> scenarioNames, String browser, int users,
+                      int rampUpSeconds, double ratePerSecond, int durationSeconds) throws NoSuchMethodException {
+        if (users < 1 || durationSeconds < 1 || rampUpSeconds < 0 || ratePerSecond < 0) {
+            throw new IllegalArgumentException("users and duration must be positive, ramp-up and rate non-negative");
+        }
+        this.testClass = testClass;
+        this.browser = browser;
+        this.users = users;
+        this.rampUpSeconds = rampUpSeconds;
+        this.ratePerSecond = ratePerSecond;
+        this.durationSeconds = durationSeconds;
+        for (String name : scenarioNames) {
+            scenarios.add(testClass.getMethod(name.trim()));
+            stats.put(name.trim(), new StepStats(name.trim()));
+        }
+        if (scenarios.isEmpty()) {
+            throw new IllegalArgumentException("At least one scenario is required");
+        }
+    }
+
+    /**
+     * Verifies that the URL points to this machine or a private network.
+     *
+     * @param baseUrl The target URL of the run.
+     * @throws IllegalStateException if the URL is missing or resolves to a public address.
+     */
+    public static void requireLocalTarget(String baseUrl) {
+        if (baseUrl == null || baseUrl.isBlank()) {
+            throw new IllegalStateException("Load mode requires -DbaseUrl pointing at a local target");
+        }
+        String host = URI.create(baseUrl).getHost();
+        try {
+            InetAddress address = InetAddress.getByName(host);
+            if (!address.isLoopbackAddress() && !address.isSiteLocalAddress() && !isUniqueLocal(address)) {
+                throw new IllegalStateException("Load mode only runs against local targets, not " + baseUrl);
+            }
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Cannot resolve load target " + baseUrl, e);
+        }
+    }
+
+    // IPv6 unique-local addresses (fc00::/7) are the IPv6 counterpart of private IPv4 networks
+    private static boolean isUniqueLocal(InetAddress address) {
+        return address instanceof Inet6Address && (address.getAddress()[0] & 0xfe) == 0xfc;
+    }
+
+    /**
+     * Runs the load test and blocks until every virtual user has finished.
+     * Users that are still busy long after the duration are interrupted, and
+     * their unfinished scenarios are recorded as errors.
+     *
+     * @return The statistics of every step, keyed by scenario name.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public Map<String, StepStats> run() throws InterruptedException {
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+        nextStartNanos.set(startNanos);
+
+        ExecutorService pool = Executors.newFixedThreadPool(users);
+        for (int user = 0; user < users; user++) {
+            long delayNanos = users == 1 ? 0 : TimeUnit.SECONDS.toNanos(rampUpSeconds) * user / (users - 1);
+            int firstScenario = user;
+            pool.submit(() -> runVirtualUser(firstScenario, startNanos + delayNanos, endNanos, firstScenario));
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(durationSeconds + rampUpSeconds + 600L, TimeUnit.SECONDS)) {
+            pool.shutdownNow();
+            for (Integer user : List.copyOf(running.keySet())) {
+                Running unfinished = running.remove(user);
+                if (unfinished != null) {
+                    stats.get(unfinished.scenario.getName()).record(
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - unfinished.beginNanos),
+                            new TimeoutException("Virtual user " + user + " did not finish the scenario"));
+                }
+            }
+            // Interrupted users quit their browsers on the way out
+            if (!pool.awaitTermination(60, TimeUnit.SECONDS)) {
+                System.err.println("Virtual users still running; their browser sessions are reaped on the next run");
+            }
+        }
+        return stats;
+    }
+
+    private void runVirtualUser(int user, long startAtNanos, long endNanos, int scenarioIndex) {
+        sleepUntil(startAtNanos);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                long slot = reserveSlot();
+                if (slot >= endNanos) {
+                    return;
+                }
+                sleepUntil(slot);
+                Method scenario = scenarios.get(scenarioIndex++ % scenarios.size());
+                Throwable error = null;
+                long begin = System.nanoTime();
+                running.put(user, new Running(scenario, begin));
+                try {
+                    BaseDriver.initializeDriver(browser, true);
+                    SessionGovernor.beginTest(BaseDriver.getDriver());
+                    // Browser start-up is not part of the step latency
+                    begin = System.nanoTime();
+                    running.replace(user, new Running(scenario, begin));
+                    scenario.invoke(testClass.getDeclaredConstructor().newInstance());
+                } catch (InvocationTargetException e) {
+                    error = e.getCause();
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    error = e;
+                }
+                if (running.remove(user) == null) {
+                    // The run timed out and already recorded this scenario as unfinished
+                    return;
+                }
+                stats.get(scenario.getName()).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin), error);
+                if (error != null) {
+                    // A failed scenario may leave alerts or half-loaded pages behind; start fresh
+                    BaseDriver.quitDriver();
+                }
+            }
+        } finally {
+            BaseDriver.quitDriver();
+        }
+    }
+
+    // Hands out scenario start times spaced 1/rate apart; unthrottled runs start immediately
+    private long reserveSlot() {
+        if (ratePerSecond == 0) {
+            return System.nanoTime();
+        }
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        return nextStartNanos.getAndUpdate(previous -> Math.max(previous, System.nanoTime() - interval) + interval);
+    }
+
+    private static void sleepUntil(long nanos) {
+        long remaining = nanos - System.nanoTime();
+        if (remaining > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Prints a summary table and writes {@code load-report.json} to the given directory.
+     *
+     * @param results The statistics returned by {@link #run()}.
+     * @param elapsedSeconds The measured wall-clock duration of the run.
+     * @param directory The directory to write the report into.
+     * @throws IOException if the report cannot be written.
+     */
+    public static void report(Map<String, StepStats> results, double elapsedSeconds, Path directory) throws IOException {
+        writeReport(results, elapsedSeconds, directory.resolve("load-report.json"));
+    }
+
+    /**
+     * Prints a summary table and writes the statistics as JSON to the given file.
+     *
+     * @param results The statistics of every step.
+     * @param elapsedSeconds The measured wall-clock duration of the run.
+     * @param file The JSON file to write; its directory is created if missing.
+     * @throws IOException if the report cannot be written.
+     */
+    static void writeReport(Map<String, StepStats> results, double elapsedSeconds, Path file) throws IOException {
+        System.out.println(String.format(Locale.ROOT, "%-32s %8s %8s %10s %8s %8s %8s %8s",
+                "step", "count", "errors", "req/s", "p50", "p90", "p95", "p99"));
+        List<Map<String, Object>> json = new ArrayList<>();
+        for (StepStats step : results.values()) {
+            System.out.println(String.format(Locale.ROOT, "%-32s %8d %7.1f%% %10.2f %8d %8d %8d %8d",
+                    step.getName(), step.getCount(), step.getErrorRate() * 100,
+                    elapsedSeconds > 0 ? step.getCount() / elapsedSeconds : 0,
+                    step.getPercentile(50), step.getPercentile(90), step.getPercentile(95), step.getPercentile(99)));
+            json.add(step.toJson(elapsedSeconds));
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, new Json().toJson(json), StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws Exception {
+        requireLocalTarget(System.getProperty("baseUrl"));
+        // Per-navigation timing attachments need a running Allure test; keep them off unless asked for
+        if (System.getProperty("perf.timings") == null) {
+            System.setProperty("perf.timings", "false");
+        }
+        // Timeouts learned by functional runs on an idle server would turn slow responses into errors
+        if (System.getProperty("timeouts.adaptive") == null) {
+            System.setProperty("timeouts.adaptive", "false");
+        }
+
+        String scenarios = System.getProperty("load.scenarios",
+                "TC2_Add_Remove_Elements,TC10_DropDown,TC14_DynamicLoading1");
+        LoadRunner runner = new LoadRunner(
+                Class.forName(System.getProperty("load.class", "tests.HerokuAppTests")),
+                List.of(scenarios.split(",")),
+                System.getProperty("browser", "chrome"),
+                Integer.getInteger("load.users", 5),
+                Integer.getInteger("load.rampUp", 10),
+                Double.parseDouble(System.getProperty("load.rate", "0")),
+                Integer.getInteger("load.duration", 60));
+
+        long start = System.nanoTime();
+        Map<String, StepStats> results = runner.run();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        report(results, elapsedSeconds, Paths.get("target", "load"));
+    }
+}
@@ -0,0 +1,91 @@
+package Selenium_Framework.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thread-safe latency and error accounting for a single load-test step.
+ * A step is one scenario, i.e. one test method executed end to end.
+ */
+public class StepStats {
+
+    private final String name;
+    private final List<Long> latenciesMillis = new ArrayList<>();
+    private int errors;
+    private String lastError;
+
+    public StepStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one finished execution of the step.
+     *
+     * @param latencyMillis The wall-clock duration of the execution in milliseconds.
+     * @param error The failure raised by the execution, or {@code null} if it passed.
+     */
+    public synchronized void record(long latencyMillis, Throwable error) {
+        latenciesMillis.add(latencyMillis);
+        if (error != null) {
+            errors++;
+            lastError = error.getClass().getSimpleName() + ": " + error.getMessage();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int getCount() {
+        return latenciesMillis.size();
+    }
+
+    public synchronized int getErrors() {
+        return errors;
+    }
+
+    public synchronized double getErrorRate() {
+        return latenciesMillis.isEmpty() ? 0 : (double) errors / latenciesMillis.size();
+    }
+
+    /**
+     * Returns the latency below which the given share of executions finished.
+     *
+     * @param percentile The percentile between 0 and 100.
+     * @return The latency in milliseconds, or 0 if the step never ran.
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (latenciesMillis.isEmpty()) {
+            return 0;
+        }
+        long[] sorted = latenciesMillis.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Builds the JSON representation of the step for the load report.
+     *
+     * @param elapsedSeconds The measured duration of the run, used to compute throughput.
+     * @return The step statistics as a map.
+     */
+    public synchronized Map<String, Object> toJson(double elapsedSeconds) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("step", name);
+        json.put("count", getCount());
+        json.put("errors", errors);
+        json.put("errorRate", getErrorRate());
+        json.put("throughputPerSecond", elapsedSeconds > 0 ? getCount() / elapsedSeconds : 0);
+        json.put("p50Millis", getPercentile(50));
+        json.put("p90Millis", getPercentile(90));
+        json.put("p95Millis", getPercentile(95));
+        json.put("p99Millis", getPercentile(99));
+        json.put("maxMillis", getPercentile(100));
+        json.put("lastError", lastError);
+        return json;
+    }
+}
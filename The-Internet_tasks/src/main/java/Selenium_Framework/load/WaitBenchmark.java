@@ -0,0 +1,165 @@
+package Selenium_Framework.load;
+
+import Selenium_Framework.base.BaseDriver;
+import Selenium_Framework.proxy.LatencyProxy;
+import Selenium_Framework.utils.AdaptiveTimeouts;
+import Selenium_Framework.utils.BrowserUtils;
+import Selenium_Framework.utils.WaitUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares wait strategies under controlled, reproducible backend delays.
+ *
+ * The browser is routed through the {@link LatencyProxy}, and every strategy
+ * runs the same scenarios the same number of times. Each strategy gets a fresh
+ * session, so none of them profits from a cache or connections another one
+ * warmed up, and starts with one unrecorded pass over the scenarios. The
+ * proxy's delay sequence is reset after that pass, so all strategies face
+ * exactly the same delays, and differences in the measured latencies come from
+ * the strategies themselves: polling intervals, timeouts and round trips.
+ *
+ * All strategies wait for the element to be visible, except
+ * {@code implicit-presence}: an implicit wait only covers finding the element.
+ * In the scenarios the element is rendered visible as soon as it is added, so
+ * the two conditions coincide there, but the name keeps the difference visible
+ * in the report.
+ *
+ * Run against a local copy of the site with:
+ * <pre>
+ * mvn -Pbench compile exec:java -DbaseUrl=http://localhost:7080 -Dbench.iterations=10 \
+ *     -Dproxy.rules="/dynamic_controls.*=300:300:0:0:exponential;/dynamic_loading.*=200:200;.*=20"
+ * </pre>
+ * The report is printed and written to {@code target/bench/wait-benchmark.json}.
+ */
+public class WaitBenchmark {
+
+    private static final String DEFAULT_RULES = "/dynamic_controls.*=300:300:0:0:exponential;/dynamic_loading.*=200:200;.*=20";
+    private static final int TIMEOUT_SECONDS = 15;
+
+    /** One page flow ending in a wait: navigate, optionally click, then wait for an element. */
+    private static final class Scenario {
+
+        private final String name;
+        private final String path;
+        private final By click;
+        private final By waitFor;
+
+        private Scenario(String name, String path, By click, By waitFor) {
+            this.name = name;
+            this.path = path;
+            this.click = click;
+            this.waitFor = waitFor;
+        }
+    }
+
+    private static final List<Scenario> SCENARIOS = List.of(
+            new Scenario("page-load", "/dynamic_loading/1", null, By.cssSelector("#start button")),
+            new Scenario("ajax", "/dynamic_controls", By.cssSelector("#checkbox-example button"), By.id("message")),
+            new Scenario("delayed-render", "/dynamic_loading/2", By.cssSelector("#start button"), By.id("finish")));
+
+    private static Map<String, Function<By, WebElement>> strategies() {
+        Map<String, Function<By, WebElement>> strategies = new LinkedHashMap<>();
+        strategies.put("adaptive", locator -> WaitUtils.waitForVisibility(locator, TIMEOUT_SECONDS));
+        strategies.put("fixed", locator -> new WebDriverWait(BaseDriver.getDriver(), Duration.ofSeconds(TIMEOUT_SECONDS))
+                .until(ExpectedConditions.visibilityOfElementLocated(locator)));
+        strategies.put("fluent-1s", locator -> WaitUtils.fluentWait(locator, TIMEOUT_SECONDS, 1));
+        strategies.put("network-idle", locator -> {
+            WaitUtils.waitForNetworkIdle(300, TIMEOUT_SECONDS, ExpectedConditions.visibilityOfElementLocated(locator));
+            return BaseDriver.getDriver().findElement(locator);
+        });
+        strategies.put("implicit-presence", locator -> {
+            WebDriver driver = BaseDriver.getDriver();
+            WaitUtils.setImplicitWait(TIMEOUT_SECONDS);
+            try {
+                return driver.findElement(locator);
+            } finally {
+                WaitUtils.setImplicitWait(0);
+            }
+        });
+        return strategies;
+    }
+
+    /**
+     * Runs every scenario with every strategy.
+     *
+     * @param baseUrl The local site to run against.
+     * @param browser The browser to use.
+     * @param iterations How often each strategy runs each scenario.
+     * @return The latency statistics keyed by {@code <scenario>/<strategy>}.
+     */
+    public static Map<String, StepStats> run(String baseUrl, String browser, int iterations) {
+        Map<String, StepStats> results = new LinkedHashMap<>();
+        LatencyProxy proxy = LatencyProxy.shared();
+        for (Map.Entry<String, Function<By, WebElement>> strategy : strategies().entrySet()) {
+            try {
+                // Learned timeouts from earlier runs or strategies would make the runs incomparable
+                AdaptiveTimeouts.reset();
+                BaseDriver.initializeDriver(browser, true);
+                for (Scenario scenario : SCENARIOS) {
+                    runScenario(baseUrl, scenario, strategy.getValue());
+                }
+                // Every strategy sees the same sequence of delays
+                proxy.reset();
+                for (int i = 0; i < iterations; i++) {
+                    for (Scenario scenario : SCENARIOS) {
+                        StepStats stats = results.computeIfAbsent(scenario.name + "/" + strategy.getKey(), StepStats::new);
+                        long begin = System.nanoTime();
+                        Throwable error = runScenario(baseUrl, scenario, strategy.getValue());
+                        stats.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin), error);
+                    }
+                }
+            } finally {
+                BaseDriver.quitDriver();
+            }
+        }
+        return results;
+    }
+
+    // Returns the error the scenario failed with, or null
+    private static Throwable runScenario(String baseUrl, Scenario scenario, Function<By, WebElement> strategy) {
+        try {
+            // Through BrowserUtils, so waits are attributed to the scenario's page like in the tests
+            BrowserUtils.navigateToURL(baseUrl + scenario.path);
+            if (scenario.click != null) {
+                BaseDriver.getDriver().findElement(scenario.click).click();
+            }
+            strategy.apply(scenario.waitFor);
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String baseUrl = System.getProperty("baseUrl");
+        LoadRunner.requireLocalTarget(baseUrl);
+        if (System.getProperty("proxy.rules") == null) {
+            System.setProperty("proxy.rules", DEFAULT_RULES);
+        }
+        // Page timings would add their own round trips to every measured scenario
+        if (System.getProperty("perf.timings") == null) {
+            System.setProperty("perf.timings", "false");
+        }
+
+        long start = System.nanoTime();
+        Map<String, StepStats> results = run(baseUrl, System.getProperty("browser", "chrome"),
+                Integer.getInteger("bench.iterations", 10));
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.println("Proxy rules: " + System.getProperty("proxy.rules")
+                + " (seed " + Long.getLong("proxy.seed", 42) + ")");
+        LoadRunner.writeReport(results, elapsedSeconds, Paths.get("target", "bench", "wait-benchmark.json"));
+    }
+}
@@ -0,0 +1,55 @@
+package Selenium_Framework.logging;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded queue whose producers never block: when it is full, an offered
+ * element is dropped and counted instead. The consumer collects the count
+ * together with the elements, so it can report how much was lost.
+ */
+final class DroppingQueue<T> {
+
+    private final BlockingQueue<T> queue;
+    private final AtomicLong dropped = new AtomicLong();
+
+    DroppingQueue(int capacity) {
+        queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Adds an element without waiting.
+     *
+     * @return {@code true} if it was queued, {@code false} if it was dropped and counted.
+     */
+    boolean offer(T element) {
+        if (queue.offer(element)) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Adds an element that must not be lost, waiting for space up to the given time.
+     *
+     * @return {@code true} if it was queued in time.
+     */
+    boolean offer(T element, long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.offer(element, timeout, unit);
+    }
+
+    /** Waits for the next element and moves it and everything else queued into the batch. */
+    void takeAll(Collection<T> batch) throws InterruptedException {
+        batch.add(queue.take());
+        queue.drainTo(batch);
+    }
+
+    /** Returns the number of elements dropped since the last call and resets it. */
+    long takeDropped() {
+        return dropped.getAndSet(0);
+    }
+}
@@ -0,0 +1,246 @@
+package Selenium_Framework.logging;
+
+import Selenium_Framework.base.BaseDriver;
+import io.qameta.allure.Allure;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.SessionId;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small asynchronous logger for tests and framework code, used instead of
+ * {@code System.out.println}, which takes a lock per call and interleaves the
+ * output of parallel tests.
+ *
+ * Logging only puts a record into a bounded in-memory ring buffer; a single
+ * background thread formats the records and writes them to the console and to
+ * one file per test in {@code -Dlog.dir} (default {@code target/test-logs}).
+ * Every line is tagged with the test, the thread and the WebDriver session ID
+ * of the thread that logged it. When the buffer is full, new records are
+ * dropped and counted rather than blocking the test.
+ *
+ * Tuning properties: {@code log.bufferSize} (default 8192 records) and
+ * {@code log.console} ({@code false} writes the per-test files only).
+ */
+public final class TestLog {
+
+    private static final String NO_TEST = "main";
+    private static final Path DIR = Paths.get(System.getProperty("log.dir", "target/test-logs"));
+    private static final boolean CONSOLE = !"false".equalsIgnoreCase(System.getProperty("log.console"));
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static final DroppingQueue<Record> queue = new DroppingQueue<>(Integer.getInteger("log.bufferSize", 8192));
+    private static final ThreadLocal<String> currentTest = ThreadLocal.withInitial(() -> NO_TEST);
+
+    // Owned by the writer thread
+    private static final Map<String, BufferedWriter> files = new HashMap<>();
+    private static final Map<String, List<String>> pendingSteps = new HashMap<>();
+    private static final Set<String> startedFiles = new HashSet<>();
+
+    static {
+        Thread writer = new Thread(TestLog::drainForever, "test-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> barrier(null, false), "test-log-flush"));
+    }
+
+    private TestLog() {
+    }
+
+    /**
+     * Attributes everything the current thread logs from now on to the given test.
+     *
+     * @param testName The name of the test, e.g. {@code HerokuAppTests.TC1_ABTest}.
+     */
+    public static void startTest(String testName) {
+        currentTest.set(testName);
+    }
+
+    /**
+     * Logs an informational message.
+     *
+     * @param message The message.
+     */
+    public static void info(String message) {
+        log("INFO", message);
+    }
+
+    /**
+     * Logs a warning, e.g. a diagnostic that is unavailable.
+     *
+     * @param message The message.
+     */
+    public static void warn(String message) {
+        log("WARN", message);
+    }
+
+    /**
+     * Waits until everything the current test logged so far is written, and adds
+     * those lines as steps to the running Allure test. Call it while the Allure test
+     * case is still open, i.e. from the test or a hook around it.
+     */
+    public static void attachToAllure() {
+        for (String line : barrier(currentTest.get(), false)) {
+            Allure.step(line);
+        }
+    }
+
+    /**
+     * Waits until everything the current test logged is written, closes its log
+     * file and attributes further output of the current thread to no test.
+     */
+    public static void endTest() {
+        barrier(currentTest.get(), true);
+        currentTest.set(NO_TEST);
+    }
+
+    // The only work done on the caller's thread: one record, one non-blocking offer
+    private static void log(String level, String message) {
+        queue.offer(new Record(System.currentTimeMillis(), level, Thread.currentThread().getName(),
+                currentTest.get(), sessionId(), message, null, false));
+    }
+
+    private static String sessionId() {
+        if (!BaseDriver.hasDriver()) {
+            return "-";
+        }
+        WebDriver driver = BaseDriver.getDriver();
+        SessionId id = driver instanceof RemoteWebDriver ? ((RemoteWebDriver) driver).getSessionId() : null;
+        return id == null ? "-" : id.toString();
+    }
+
+    private static List<String> barrier(String testName, boolean close) {
+        Record marker = new Record(0, null, null, testName, null, null, new CountDownLatch(1), close);
+        try {
+            if (queue.offer(marker, 5, TimeUnit.SECONDS) && marker.done.await(5, TimeUnit.SECONDS)) {
+                return marker.steps;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return List.of();
+    }
+
+    private static void drainForever() {
+        List<Record> batch = new ArrayList<>();
+        while (true) {
+            try {
+                queue.takeAll(batch);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long lost = queue.takeDropped();
+            if (lost > 0) {
+                write(new Record(System.currentTimeMillis(), "WARN", Thread.currentThread().getName(), NO_TEST,
+                        "-", lost + " log lines dropped, buffer full", null, false));
+            }
+            for (Record record : batch) {
+                if (record.done == null) {
+                    write(record);
+                } else {
+                    complete(record);
+                }
+            }
+            batch.clear();
+            flushFiles();
+        }
+    }
+
+    private static void write(Record record) {
+        String line = String.format("%s %-4s [%s] [%s] [%s] %s", TIME.format(Instant.ofEpochMilli(record.timestamp)),
+                record.level, record.thread, record.test, record.session, record.message);
+        if (CONSOLE) {
+            System.out.println(line);
+        }
+        if (!NO_TEST.equals(record.test)) {
+            pendingSteps.computeIfAbsent(record.test, test -> new ArrayList<>()).add(record.message);
+        }
+        try {
+            BufferedWriter file = files.get(record.test);
+            if (file == null) {
+                Files.createDirectories(DIR);
+                // Replace the file of an earlier run, but append if the same test runs again in this one
+                file = Files.newBufferedWriter(DIR.resolve(record.test.replaceAll("[^A-Za-z0-9._-]", "_") + ".log"),
+                        StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        startedFiles.add(record.test) ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND);
+                files.put(record.test, file);
+            }
+            file.write(line);
+            file.newLine();
+        } catch (IOException e) {
+            System.err.println("Cannot write test log of " + record.test + ": " + e.getMessage());
+        }
+    }
+
+    private static void complete(Record marker) {
+        flushFiles();
+        if (marker.test != null) {
+            List<String> steps = pendingSteps.remove(marker.test);
+            marker.steps = steps == null ? List.of() : steps;
+            if (marker.close) {
+                BufferedWriter file = files.remove(marker.test);
+                if (file != null) {
+                    try {
+                        file.close();
+                    } catch (IOException e) {
+                        System.err.println("Cannot close test log of " + marker.test + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+        marker.done.countDown();
+    }
+
+    private static void flushFiles() {
+        for (BufferedWriter file : files.values()) {
+            try {
+                file.flush();
+            } catch (IOException e) {
+                // Reported when the next line fails to be written
+            }
+        }
+    }
+
+    private static final class Record {
+
+        private final long timestamp;
+        private final String level;
+        private final String thread;
+        private final String test;
+        private final String session;
+        private final String message;
+        private final CountDownLatch done;
+        private final boolean close;
+        private volatile List<String> steps = List.of();
+
+        private Record(long timestamp, String level, String thread, String test, String session, String message,
+                       CountDownLatch done, boolean close) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.thread = thread;
+            this.test = test;
+            this.session = session;
+            this.message = message;
+            this.done = done;
+            this.close = close;
+        }
+    }
+}
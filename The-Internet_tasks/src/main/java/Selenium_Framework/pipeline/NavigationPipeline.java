@@ -0,0 +1,221 @@
+package Selenium_Framework.pipeline;
+
+import Selenium_Framework.base.ScreencastRecorder;
+import Selenium_Framework.base.TabRegistry;
+import Selenium_Framework.base.ThrottlingProfile;
+import Selenium_Framework.logging.TestLog;
+import Selenium_Framework.utils.PerformanceUtils;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.bidi.HasBiDi;
+import org.openqa.selenium.bidi.browsingcontext.BrowsingContext;
+import org.openqa.selenium.bidi.browsingcontext.CreateContextParameters;
+import org.openqa.selenium.bidi.browsingcontext.ReadinessState;
+import org.openqa.selenium.bidi.module.Storage;
+import org.openqa.selenium.bidi.storage.CookieFilter;
+import org.openqa.selenium.bidi.storage.DeleteCookiesParameters;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Hides page-load latency behind test execution when a session is reused
+ * from one test to the next.
+ *
+ * As soon as a test's body has finished, the first page of the next scheduled
+ * test, as declared with {@link TargetUrl}, starts loading in a background tab
+ * of the same session. The current test's assertions and tear-down run while
+ * the page loads. When the next test then navigates to exactly that URL, it is
+ * handed the preloaded tab instead: the old tab is closed and the test only
+ * waits for whatever is left of the load. A navigation to any other URL
+ * discards the preload and navigates as usual.
+ *
+ * Before a page is preloaded, the session's cookies and the current page's
+ * local storage are cleared, and the new tab comes with session storage of its
+ * own, so the next test starts out logged out, as it would in a fresh session. Everything else a kept session carries
+ * over, e.g. the HTTP cache and storage of other origins, is still shared, so
+ * tests must not depend on it either way.
+ *
+ * The services bound to one tab move with the preload: the session's DevTools
+ * connection is attached to the background tab before it starts loading, so the
+ * page loads under the session's {@link ThrottlingProfile} and the
+ * {@link ScreencastRecorder} records the tab the next test runs in. A discarded
+ * preload hands them back to the current tab. Chrome is started without
+ * background timer throttling while the pipeline is enabled, so
+ * {@link PerformanceUtils} times a preloaded page like any other, except for
+ * the paint metrics: a background tab does not paint until it is shown, so
+ * they are left out of its sample.
+ *
+ * Preloading needs a BiDi session; other sessions simply navigate as before.
+ * The pipeline is off by default and enabled with {@code -Dnav.pipeline=true};
+ * it assumes the tests of a thread run in the recorded schedule order.
+ */
+public class NavigationPipeline {
+
+    private static final List<Method> schedule = new CopyOnWriteArrayList<>();
+    private static final Map<WebDriver, Preload> preloads = new ConcurrentHashMap<>();
+
+    private static final class Preload {
+
+        private final String url;
+        private final String handle;
+
+        private Preload(String url, String handle) {
+            this.url = url;
+            this.handle = handle;
+        }
+    }
+
+    /**
+     * Returns whether sessions are kept between tests and next pages are preloaded.
+     *
+     * @return {@code true} if {@code -Dnav.pipeline=true} was given.
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("nav.pipeline");
+    }
+
+    /**
+     * Records the order in which the test methods are going to run.
+     *
+     * @param methods The test methods in run order.
+     */
+    public static void setSchedule(List<Method> methods) {
+        schedule.clear();
+        schedule.addAll(methods);
+    }
+
+    /**
+     * Returns the test scheduled to run after the given one.
+     *
+     * @param current The running test method.
+     * @return The next test method, or empty if the given one is the last or not scheduled.
+     */
+    public static Optional<Method> next(Method current) {
+        int index = schedule.indexOf(current);
+        return index >= 0 && index + 1 < schedule.size() ? Optional.of(schedule.get(index + 1)) : Optional.empty();
+    }
+
+    /**
+     * Starts loading a page in a background tab of the session without waiting for it.
+     * A previous preload of the session that was never taken over is discarded, and
+     * the session's cookies and the current page's local storage are cleared first.
+     * The session's DevTools services are moved to the new tab before it starts loading.
+     * Sessions without BiDi are left untouched.
+     *
+     * @param driver The driver of the session.
+     * @param url The URL of the page.
+     */
+    public static void preload(WebDriver driver, String url) {
+        if (!(driver instanceof HasBiDi) || ((HasBiDi) driver).maybeGetBiDi().isEmpty()) {
+            return;
+        }
+        discard(driver);
+        try {
+            new Storage(driver).deleteCookies(new DeleteCookiesParameters(new CookieFilter()));
+            ((JavascriptExecutor) driver).executeScript("window.localStorage.clear();");
+            BrowsingContext tab = new BrowsingContext(driver,
+                    new CreateContextParameters(WindowType.TAB).background(true));
+            preloads.put(driver, new Preload(url, tab.getId()));
+            moveDevTools(driver, tab.getId());
+            tab.navigate(url, ReadinessState.NONE);
+        } catch (WebDriverException e) {
+            // The next test navigates the ordinary way
+            TestLog.warn("Could not preload " + url + ": " + e.getMessage());
+            discard(driver);
+        }
+    }
+
+    /**
+     * Hands the preloaded page over to the caller if it is the one requested. The
+     * preloaded tab becomes the current window, every other tab of the session is
+     * closed, and the call returns once the page has finished loading.
+     * A preload of another URL is discarded. The remaining load is waited for up to
+     * the session's page load timeout, like a regular navigation.
+     *
+     * @param driver The driver of the session.
+     * @param url The URL the caller is about to navigate to.
+     * @return {@code true} if the preloaded page is now current and no navigation is needed.
+     */
+    public static boolean takeOver(WebDriver driver, String url) {
+        Preload preload = preloads.get(driver);
+        if (preload == null) {
+            return false;
+        }
+        if (!preload.url.equals(url)) {
+            discard(driver);
+            return false;
+        }
+        preloads.remove(driver);
+        try {
+            for (String handle : driver.getWindowHandles()) {
+                if (!handle.equals(preload.handle)) {
+                    new BrowsingContext(driver, handle).close();
+                    TabRegistry.of(driver).ifPresent(registry -> registry.forget(handle));
+                }
+            }
+            driver.switchTo().window(preload.handle);
+            TabRegistry.of(driver).ifPresent(registry -> registry.setCurrent(preload.handle));
+            new BrowsingContext(driver, preload.handle).activate();
+            new WebDriverWait(driver, driver.manage().timeouts().getPageLoadTimeout()).until(d ->
+                    "complete".equals(((JavascriptExecutor) d).executeScript("return document.readyState")));
+            return true;
+        } catch (WebDriverException e) {
+            // Fall back to a regular navigation
+            TestLog.warn("Could not take over the preloaded " + url + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Closes the session's preloaded tab, if any, and moves the session's DevTools
+     * services back to the current tab.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void discard(WebDriver driver) {
+        Preload preload = preloads.remove(driver);
+        if (preload == null) {
+            return;
+        }
+        try {
+            moveDevTools(driver, driver.getWindowHandle());
+            new BrowsingContext(driver, preload.handle).close();
+            TabRegistry.of(driver).ifPresent(registry -> registry.forget(preload.handle));
+        } catch (WebDriverException e) {
+            TestLog.warn("Could not close the preloaded " + preload.url + ": " + e.getMessage());
+        }
+    }
+
+    // Attaches the session's DevTools connection, and the throttling and screencast bound to it, to another tab
+    private static void moveDevTools(WebDriver driver, String handle) {
+        if (!(driver instanceof HasDevTools)
+                || !ThrottlingProfile.isApplied(driver) && !ScreencastRecorder.isRecording(driver)) {
+            return;
+        }
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        // Detaching ends the previous tab's emulation and screencast
+        devTools.disconnectSession();
+        devTools.createSession(handle);
+        ThrottlingProfile.moveTo(driver, handle);
+        ScreencastRecorder.restart(driver);
+    }
+
+    /**
+     * Forgets the session's preload without touching the browser, for sessions that are quitting.
+     *
+     * @param driver The driver of the session.
+     */
+    public static void release(WebDriver driver) {
+        preloads.remove(driver);
+    }
+}
@@ -0,0 +1,18 @@
+package Selenium_Framework.pipeline;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the page a test navigates to first, so that {@link NavigationPipeline}
+ * can start loading it while the previous test is still finishing.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface TargetUrl {
+
+    /** The path of the page, relative to the suite's base URL, e.g. {@code /dynamic_loading/1}. */
+    String value();
+}
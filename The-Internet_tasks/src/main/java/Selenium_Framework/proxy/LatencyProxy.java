@@ -0,0 +1,349 @@
+package Selenium_Framework.proxy;
+
+import Selenium_Framework.logging.TestLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * A local HTTP proxy that injects scripted latency, jitter, bandwidth caps and
+ * failures, so that waits can be exercised against slow or flaky backends in a
+ * reproducible way.
+ *
+ * Each request is matched against the rules in order; the first rule whose
+ * pattern matches the request path (for plain HTTP) or the host (for HTTPS
+ * tunnels, whose paths are encrypted) decides how it is delayed. Random values
+ * are drawn from a generator seeded with the seed, the path and how often that
+ * path was requested, so the n-th request of a path always gets the same delay
+ * no matter how requests of different paths interleave.
+ *
+ * Rules are given as {@code -Dproxy.rules}, separated by {@code ;}, each
+ * {@code <regex>=<latencyMs>[:<jitterMs>[:<kbps>[:<failureRate>[:<distribution>]]]]}.
+ * The distribution of the jitter is {@code uniform} (0 to jitter, the default)
+ * or {@code exponential} (mean jitter). A bandwidth of 0 is unlimited. Failed
+ * requests are answered with {@code 503}. For example:
+ * <pre>
+ * -Dproxy.rules="/dynamic_loading.*=800:400;/dynamic_controls.*=200:300:256:0.05:exponential;.*=50"
+ * </pre>
+ */
+public class LatencyProxy implements AutoCloseable {
+
+    private final List<Rule> rules;
+    private final long seed;
+    private final ServerSocket server;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "latency-proxy");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+
+    private static LatencyProxy shared;
+
+    /**
+     * Starts a proxy on a free loopback port.
+     *
+     * @param rules The rules, first match wins; requests matching none are forwarded undelayed.
+     * @param seed The seed of the random delays and failures.
+     * @throws IOException if the port cannot be opened.
+     */
+    public LatencyProxy(List<Rule> rules, long seed) throws IOException {
+        this.rules = List.copyOf(rules);
+        this.seed = seed;
+        this.server = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "latency-proxy-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Starts a proxy configured by {@code -Dproxy.rules} and {@code -Dproxy.seed} (default 42).
+     *
+     * @return The running proxy.
+     * @throws IOException if the port cannot be opened.
+     */
+    public static LatencyProxy fromSystemProperties() throws IOException {
+        return new LatencyProxy(Rule.parseAll(System.getProperty("proxy.rules", "")), Long.getLong("proxy.seed", 42));
+    }
+
+    /**
+     * Returns whether new browser sessions are routed through the shared proxy.
+     *
+     * @return {@code true} if {@code -Dproxy.rules} was given.
+     */
+    public static boolean isEnabled() {
+        return System.getProperty("proxy.rules") != null;
+    }
+
+    /**
+     * Returns the proxy shared by all sessions of this JVM, starting it on first use.
+     *
+     * @return The shared proxy configured from the system properties.
+     * @throws UncheckedIOException if the proxy cannot be started.
+     */
+    public static synchronized LatencyProxy shared() {
+        if (shared == null) {
+            try {
+                shared = fromSystemProperties();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot start the latency proxy", e);
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the address browsers should use as their HTTP and HTTPS proxy.
+     *
+     * @return {@code host:port} of the proxy.
+     */
+    public String getAddress() {
+        return server.getInetAddress().getHostAddress() + ":" + server.getLocalPort();
+    }
+
+    /**
+     * Restarts the delay sequence, so that the next run sees exactly the same delays as the last one.
+     */
+    public void reset() {
+        requestCounts.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        connections.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket client = server.accept();
+                connections.submit(() -> handle(client));
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    TestLog.warn("Latency proxy stopped accepting connections: " + e.getMessage());
+                }
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket client) {
+        try (client) {
+            InputStream in = client.getInputStream();
+            String head = readHead(in);
+            if (head == null) {
+                return;
+            }
+            String[] requestLine = head.substring(0, head.indexOf("\r\n")).split(" ");
+            boolean tunnel = "CONNECT".equalsIgnoreCase(requestLine[0]);
+            String host;
+            int port;
+            String path;
+            if (tunnel) {
+                URI authority = URI.create("//" + requestLine[1]);
+                host = authority.getHost();
+                port = authority.getPort() == -1 ? 443 : authority.getPort();
+                path = host;
+            } else {
+                URI target = URI.create(requestLine[1]);
+                host = target.getHost();
+                port = target.getPort() == -1 ? 80 : target.getPort();
+                path = target.getRawPath() == null || target.getRawPath().isEmpty() ? "/" : target.getRawPath();
+            }
+
+            Rule rule = match(path);
+            Random random = randomFor(path);
+            if (rule != null) {
+                TimeUnit.MILLISECONDS.sleep(rule.delayMillis(random));
+                if (random.nextDouble() < rule.failureRate) {
+                    client.getOutputStream().write(("HTTP/1.1 503 Service Unavailable\r\nContent-Length: 0\r\n"
+                            + "Connection: close\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                    return;
+                }
+            }
+
+            try (Socket upstream = new Socket()) {
+                upstream.connect(new InetSocketAddress(host, port), 10_000);
+                if (tunnel) {
+                    client.getOutputStream().write("HTTP/1.1 200 Connection Established\r\n\r\n"
+                            .getBytes(StandardCharsets.ISO_8859_1));
+                } else {
+                    // Origin-form request line, one request per connection
+                    String rest = head.substring(head.indexOf("\r\n") + 2)
+                            .replaceAll("(?im)^(proxy-connection|connection|keep-alive):.*\r\n", "");
+                    String query = URI.create(requestLine[1]).getRawQuery();
+                    String forwarded = requestLine[0] + " " + path + (query == null ? "" : "?" + query) + " "
+                            + requestLine[2] + "\r\nConnection: close\r\n" + rest;
+                    upstream.getOutputStream().write(forwarded.getBytes(StandardCharsets.ISO_8859_1));
+                }
+                Thread upload = new Thread(() -> pipe(in, socketOutput(upstream), 0), "latency-proxy-upload");
+                upload.setDaemon(true);
+                upload.start();
+                pipe(upstream.getInputStream(), client.getOutputStream(), rule == null ? 0 : rule.kilobitsPerSecond);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The browser or the origin went away; nothing to report to anyone
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Rule match(String path) {
+        for (Rule rule : rules) {
+            if (rule.pattern.matcher(path).matches()) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private Random randomFor(String path) {
+        long count = requestCounts.computeIfAbsent(path, key -> new AtomicLong()).getAndIncrement();
+        return new Random(seed * 31 + path.hashCode() * 17L + count);
+    }
+
+    // Copies until either side closes, sleeping as needed to stay below the bandwidth cap
+    private static void pipe(InputStream from, OutputStream to, int kilobitsPerSecond) {
+        byte[] buffer = new byte[kilobitsPerSecond > 0 ? Math.max(512, kilobitsPerSecond * 1000 / 8 / 20) : 16 * 1024];
+        long start = System.nanoTime();
+        long sent = 0;
+        try {
+            for (int read; (read = from.read(buffer)) > 0; ) {
+                to.write(buffer, 0, read);
+                to.flush();
+                sent += read;
+                if (kilobitsPerSecond > 0) {
+                    long dueNanos = sent * 8 * 1_000_000L / kilobitsPerSecond;
+                    long aheadNanos = dueNanos - (System.nanoTime() - start);
+                    if (aheadNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(aheadNanos);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Connection closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static OutputStream socketOutput(Socket socket) {
+        try {
+            return socket.getOutputStream();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Reads the request line and headers up to the blank line, byte by byte so no body is consumed
+    private static String readHead(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int matched = 0;
+        for (int b; (b = in.read()) != -1; ) {
+            head.write(b);
+            matched = (b == '\r' && matched % 2 == 0) || (b == '\n' && matched % 2 == 1) ? matched + 1 : 0;
+            if (matched == 4) {
+                return head.toString(StandardCharsets.ISO_8859_1);
+            }
+            if (head.size() > 64 * 1024) {
+                throw new SocketException("Request head too large");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * How requests whose path matches a pattern are delayed.
+     */
+    public static class Rule {
+
+        private final Pattern pattern;
+        private final int latencyMillis;
+        private final int jitterMillis;
+        private final int kilobitsPerSecond;
+        private final double failureRate;
+        private final boolean exponential;
+
+        /**
+         * Creates a rule.
+         *
+         * @param regex The regular expression the whole request path (or HTTPS host) must match.
+         * @param latencyMillis The fixed delay before the request is forwarded.
+         * @param jitterMillis The random extra delay: up to this value, or its mean when exponential.
+         * @param kilobitsPerSecond The response bandwidth cap, or 0 for unlimited.
+         * @param failureRate The share of requests answered with {@code 503}, between 0 and 1.
+         * @param exponential Whether the jitter is exponentially instead of uniformly distributed.
+         */
+        public Rule(String regex, int latencyMillis, int jitterMillis, int kilobitsPerSecond,
+                    double failureRate, boolean exponential) {
+            if (latencyMillis < 0 || jitterMillis < 0 || kilobitsPerSecond < 0 || failureRate < 0 || failureRate > 1) {
+                throw new IllegalArgumentException("Invalid proxy rule for " + regex);
+            }
+            this.pattern = Pattern.compile(regex);
+            this.latencyMillis = latencyMillis;
+            this.jitterMillis = jitterMillis;
+            this.kilobitsPerSecond = kilobitsPerSecond;
+            this.failureRate = failureRate;
+            this.exponential = exponential;
+        }
+
+        /**
+         * Parses rules in the {@code -Dproxy.rules} format.
+         *
+         * @param spec The rules separated by {@code ;}.
+         * @return The rules in the given order.
+         * @throws IllegalArgumentException if a rule is malformed.
+         */
+        public static List<Rule> parseAll(String spec) {
+            List<Rule> parsed = new ArrayList<>();
+            for (String rule : spec.split(";")) {
+                if (rule.isBlank()) {
+                    continue;
+                }
+                int equals = rule.lastIndexOf('=');
+                if (equals < 1) {
+                    throw new IllegalArgumentException("Expected <regex>=<latencyMs>[:...] but got " + rule);
+                }
+                String[] values = rule.substring(equals + 1).trim().split(":");
+                parsed.add(new Rule(rule.substring(0, equals).trim(),
+                        Integer.parseInt(values[0]),
+                        values.length > 1 ? Integer.parseInt(values[1]) : 0,
+                        values.length > 2 ? Integer.parseInt(values[2]) : 0,
+                        values.length > 3 ? Double.parseDouble(values[3]) : 0,
+                        values.length > 4 && "exponential".equalsIgnoreCase(values[4])));
+            }
+            return parsed;
+        }
+
+        private long delayMillis(Random random) {
+            if (jitterMillis == 0) {
+                return latencyMillis;
+            }
+            double jitter = exponential
+                    ? -jitterMillis * Math.log(1 - random.nextDouble())
+                    : random.nextDouble() * jitterMillis;
+            return latencyMillis + Math.round(jitter);
+        }
+    }
+}
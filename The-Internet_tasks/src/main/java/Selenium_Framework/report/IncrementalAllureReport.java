@@ -0,0 +1,420 @@
+package Selenium_Framework.report;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Merges the raw {@code allure-results} of each run into a compact, bounded
+ * result store instead of regenerating the report from an ever-growing
+ * directory.
+ *
+ * Every run only looks at the result and container files it has not merged
+ * before (tracked by name, size and modification time in the index). Their
+ * attachments are copied into the store under the SHA-256 of their content, so
+ * identical screenshots, logs and timing exports are stored once. Retention
+ * keeps the newest {@code -Dreport.keepPerTest} (default 10) results of each
+ * test, optionally only those younger than {@code -Dreport.maxAgeDays}, and
+ * deletes containers and attachments nothing refers to anymore. With
+ * {@code -Dreport.compact=true} the merged result and container files, and the
+ * attachments they refer to, are removed from {@code allure-results}
+ * afterwards. Any other input file, e.g. an attachment of a test that is still
+ * running, is left alone.
+ *
+ * The store is a regular Allure results directory, so the HTML report is
+ * generated from it as usual. Run with:
+ * <pre>
+ * mvn -Preport compile exec:java
+ * mvn allure:report -Dallure.results.directory=.test-cache/allure-results
+ * </pre>
+ * Paths: {@code -Dreport.input} (default {@code allure-results}),
+ * {@code -Dreport.store} (default {@code .test-cache/allure-results}) and
+ * {@code -Dreport.index} (default {@code .test-cache/allure-index.json}).
+ */
+public class IncrementalAllureReport {
+
+    private static final String RESULT_SUFFIX = "-result.json";
+    private static final String CONTAINER_SUFFIX = "-container.json";
+    // Run-level files that are small and simply replaced on every build
+    private static final List<String> RUN_FILES = List.of("environment.properties", "categories.json", "executor.json");
+
+    private final Path input;
+    private final Path store;
+    private final Path indexFile;
+    private final int keepPerTest;
+    private final long maxAgeMillis;
+
+    // Input file name -> "size:lastModified" of the version that was merged
+    private final Map<String, Object> processed = new TreeMap<>();
+    // Result uuid -> test key, stop time, stored file and attachment files
+    private final Map<String, Object> results = new TreeMap<>();
+    // Container uuid -> children, stored file and attachment files
+    private final Map<String, Object> containers = new TreeMap<>();
+
+    private int newResults;
+    private int newContainers;
+    private int storedAttachments;
+    private int duplicateAttachments;
+    private long duplicateBytes;
+
+    /**
+     * Creates a merger.
+     *
+     * @param input The raw results directory written by the Allure adapter.
+     * @param store The compact results directory the report is generated from.
+     * @param indexFile The index of merged files and stored results.
+     * @param keepPerTest The number of results kept per test.
+     * @param maxAgeDays Results older than this are dropped, or 0 to keep them regardless of age.
+     */
+    public IncrementalAllureReport(Path input, Path store, Path indexFile, int keepPerTest, int maxAgeDays) {
+        if (keepPerTest < 1 || maxAgeDays < 0) {
+            throw new IllegalArgumentException("keepPerTest must be positive and maxAgeDays non-negative");
+        }
+        this.input = input;
+        this.store = store;
+        this.indexFile = indexFile;
+        this.keepPerTest = keepPerTest;
+        this.maxAgeMillis = maxAgeDays * 24L * 60 * 60 * 1000;
+    }
+
+    /**
+     * Merges the new input files into the store, applies retention and writes the index.
+     *
+     * @param compact Whether merged input files are deleted from the input directory.
+     * @return A one-line summary of what was done.
+     * @throws IOException if the store or the index cannot be written.
+     */
+    @SuppressWarnings("unchecked")
+    public String update(boolean compact) throws IOException {
+        loadIndex();
+        Files.createDirectories(store);
+        List<Path> merged = new ArrayList<>();
+
+        if (Files.isDirectory(input)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(input, "*.json")) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    boolean isResult = name.endsWith(RESULT_SUFFIX);
+                    if (!isResult && !name.endsWith(CONTAINER_SUFFIX)) {
+                        continue;
+                    }
+                    String version = Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+                    if (version.equals(processed.get(name))) {
+                        continue;
+                    }
+                    Map<String, Object> json;
+                    try {
+                        json = new Json().toType(Files.readString(file), Json.MAP_TYPE);
+                    } catch (RuntimeException e) {
+                        // Most likely still being written; picked up by the next build
+                        continue;
+                    }
+                    Set<String> attachments = new HashSet<>();
+                    Object rewritten = storeAttachments(json, attachments, merged);
+                    Files.writeString(store.resolve(name), new Json().toJson(rewritten), StandardCharsets.UTF_8);
+
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("file", name);
+                    entry.put("attachments", new ArrayList<>(attachments));
+                    if (isResult) {
+                        Object testKey = json.getOrDefault("historyId", json.getOrDefault("fullName", name));
+                        entry.put("test", testKey);
+                        entry.put("stop", json.get("stop") instanceof Number ? json.get("stop") : 0L);
+                        entry.put("status", json.get("status"));
+                        results.put((String) json.get("uuid"), entry);
+                        newResults++;
+                    } else {
+                        entry.put("children", json.getOrDefault("children", List.of()));
+                        containers.put((String) json.get("uuid"), entry);
+                        newContainers++;
+                    }
+                    processed.put(name, version);
+                    merged.add(file);
+                }
+            }
+        }
+
+        for (String name : RUN_FILES) {
+            if (Files.isRegularFile(input.resolve(name))) {
+                Files.copy(input.resolve(name), store.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        int removed = applyRetention();
+        int collected = collectGarbage();
+        saveIndex();
+
+        int compacted = compact ? compact(merged) : 0;
+        return String.format("merged %d results and %d containers, stored %d attachments (%d duplicates, %d KB saved), "
+                        + "dropped %d old results and %d unreferenced files, compacted %d input files; store holds %d results",
+                newResults, newContainers, storedAttachments, duplicateAttachments, duplicateBytes / 1024,
+                removed, collected, compacted, results.size());
+    }
+
+    // Deletes merged input files and the attachments they refer to. Results merged by an
+    // earlier build without compaction are read again to find their attachments; files no
+    // merged result refers to may belong to a test still running and are kept.
+    private int compact(List<Path> merged) throws IOException {
+        Set<Path> deletable = new HashSet<>(merged);
+        if (Files.isDirectory(input)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(input, "*.json")) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    boolean isJson = name.endsWith(RESULT_SUFFIX) || name.endsWith(CONTAINER_SUFFIX);
+                    if (!isJson || deletable.contains(file)
+                            || !(Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis()).equals(processed.get(name))) {
+                        continue;
+                    }
+                    Set<String> sources = new HashSet<>();
+                    try {
+                        collectSources(new Json().toType(Files.readString(file), Json.MAP_TYPE), sources);
+                    } catch (RuntimeException e) {
+                        // Cannot tell which attachments it refers to, so keep it and them
+                        continue;
+                    }
+                    for (String source : sources) {
+                        deletable.add(input.resolve(source));
+                    }
+                    deletable.add(file);
+                }
+            }
+        }
+        int compacted = 0;
+        for (Path file : deletable) {
+            if (Files.deleteIfExists(file)) {
+                compacted++;
+            }
+        }
+        // Deleted inputs can never come back, so their entries are no longer needed
+        processed.keySet().removeIf(name -> !Files.exists(input.resolve(name)));
+        saveIndex();
+        return compacted;
+    }
+
+    // Collects the source file names of every attachment referenced by the node
+    @SuppressWarnings("unchecked")
+    private static void collectSources(Object node, Set<String> sources) {
+        if (node instanceof List) {
+            for (Object item : (List<Object>) node) {
+                collectSources(item, sources);
+            }
+        } else if (node instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) node).entrySet()) {
+                if ("attachments".equals(entry.getKey()) && entry.getValue() instanceof List) {
+                    for (Object attachment : (List<Object>) entry.getValue()) {
+                        Object source = attachment instanceof Map ? ((Map<String, Object>) attachment).get("source") : null;
+                        if (source instanceof String) {
+                            sources.add((String) source);
+                        }
+                    }
+                } else {
+                    collectSources(entry.getValue(), sources);
+                }
+            }
+        }
+    }
+
+    // Copies every attachment referenced by the node into the store under its content hash
+    @SuppressWarnings("unchecked")
+    private Object storeAttachments(Object node, Set<String> attachments, List<Path> merged) throws IOException {
+        if (node instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            for (Object item : (List<Object>) node) {
+                copy.add(storeAttachments(item, attachments, merged));
+            }
+            return copy;
+        }
+        if (!(node instanceof Map)) {
+            return node;
+        }
+        Map<String, Object> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : ((Map<String, Object>) node).entrySet()) {
+            if ("attachments".equals(entry.getKey()) && entry.getValue() instanceof List) {
+                List<Object> stored = new ArrayList<>();
+                for (Object attachment : (List<Object>) entry.getValue()) {
+                    Map<String, Object> updated = new LinkedHashMap<>((Map<String, Object>) attachment);
+                    Object source = updated.get("source");
+                    if (source instanceof String) {
+                        String hashed = storeAttachment((String) source, merged);
+                        if (hashed != null) {
+                            updated.put("source", hashed);
+                            attachments.add(hashed);
+                        }
+                    }
+                    stored.add(updated);
+                }
+                copy.put(entry.getKey(), stored);
+            } else {
+                copy.put(entry.getKey(), storeAttachments(entry.getValue(), attachments, merged));
+            }
+        }
+        return copy;
+    }
+
+    private String storeAttachment(String source, List<Path> merged) throws IOException {
+        Path file = input.resolve(source);
+        if (!Files.isRegularFile(file)) {
+            // Already merged by an earlier build, or lost; keep whatever the store has
+            return Files.exists(store.resolve(source)) ? source : null;
+        }
+        MessageDigest digest = sha256();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        int dot = source.lastIndexOf('.');
+        String hashed = HexFormat.of().formatHex(digest.digest()) + (dot > 0 ? source.substring(dot) : "");
+        Path target = store.resolve(hashed);
+        if (Files.exists(target)) {
+            duplicateAttachments++;
+            duplicateBytes += Files.size(file);
+        } else {
+            Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+            storedAttachments++;
+        }
+        merged.add(file);
+        return hashed;
+    }
+
+    // Keeps the newest results of each test and drops those past the maximum age
+    @SuppressWarnings("unchecked")
+    private int applyRetention() throws IOException {
+        Map<Object, List<String>> byTest = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : results.entrySet()) {
+            byTest.computeIfAbsent(((Map<String, Object>) entry.getValue()).get("test"), key -> new ArrayList<>())
+                    .add(entry.getKey());
+        }
+        long cutoff = maxAgeMillis == 0 ? Long.MIN_VALUE : System.currentTimeMillis() - maxAgeMillis;
+        int removed = 0;
+        for (List<String> uuids : byTest.values()) {
+            uuids.sort(Comparator.comparingLong((String uuid) -> stopOf(uuid)).reversed());
+            for (int i = 0; i < uuids.size(); i++) {
+                if (i >= keepPerTest || stopOf(uuids.get(i)) < cutoff) {
+                    Map<String, Object> entry = (Map<String, Object>) results.remove(uuids.get(i));
+                    Files.deleteIfExists(store.resolve((String) entry.get("file")));
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    // Deletes containers without remaining results and attachments nothing refers to
+    @SuppressWarnings("unchecked")
+    private int collectGarbage() throws IOException {
+        int collected = 0;
+        // Containers can nest, so repeat until no container loses its last child
+        for (boolean changed = true; changed; ) {
+            changed = false;
+            for (String uuid : new ArrayList<>(containers.keySet())) {
+                Map<String, Object> entry = (Map<String, Object>) containers.get(uuid);
+                List<Object> children = (List<Object>) entry.get("children");
+                boolean used = children.stream().anyMatch(child -> results.containsKey(child) || containers.containsKey(child));
+                if (!used) {
+                    containers.remove(uuid);
+                    Files.deleteIfExists(store.resolve((String) entry.get("file")));
+                    collected++;
+                    changed = true;
+                }
+            }
+        }
+
+        Set<String> referenced = new HashSet<>();
+        for (Object entry : results.values()) {
+            referenced.addAll((List<String>) ((Map<String, Object>) entry).get("attachments"));
+        }
+        for (Object entry : containers.values()) {
+            referenced.addAll((List<String>) ((Map<String, Object>) entry).get("attachments"));
+        }
+        Set<String> indexed = new HashSet<>();
+        for (Object entry : results.values()) {
+            indexed.add((String) ((Map<String, Object>) entry).get("file"));
+        }
+        for (Object entry : containers.values()) {
+            indexed.add((String) ((Map<String, Object>) entry).get("file"));
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(store)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                boolean isJson = name.endsWith(RESULT_SUFFIX) || name.endsWith(CONTAINER_SUFFIX);
+                boolean isAttachment = name.matches("[0-9a-f]{64}(\\..*)?");
+                if (isJson ? !indexed.contains(name) : isAttachment && !referenced.contains(name)) {
+                    Files.delete(file);
+                    collected++;
+                }
+            }
+        }
+        return collected;
+    }
+
+    @SuppressWarnings("unchecked")
+    private long stopOf(String uuid) {
+        return ((Number) ((Map<String, Object>) results.get(uuid)).get("stop")).longValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadIndex() {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try {
+            Map<String, Object> index = new Json().toType(Files.readString(indexFile), Json.MAP_TYPE);
+            processed.putAll((Map<String, Object>) index.get("processed"));
+            results.putAll((Map<String, Object>) index.get("results"));
+            containers.putAll((Map<String, Object>) index.get("containers"));
+        } catch (IOException | RuntimeException e) {
+            // Start over; the store is rebuilt from whatever input is still there
+            System.err.println("Ignoring unreadable report index " + indexFile + ": " + e.getMessage());
+            processed.clear();
+            results.clear();
+            containers.clear();
+        }
+    }
+
+    private void saveIndex() throws IOException {
+        Map<String, Object> index = new LinkedHashMap<>();
+        index.put("processed", processed);
+        index.put("results", results);
+        index.put("containers", containers);
+        Files.createDirectories(indexFile.toAbsolutePath().getParent());
+        Files.writeString(indexFile, new Json().toJson(index), StandardCharsets.UTF_8);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        IncrementalAllureReport report = new IncrementalAllureReport(
+                Paths.get(System.getProperty("report.input", "allure-results")),
+                Paths.get(System.getProperty("report.store", ".test-cache/allure-results")),
+                Paths.get(System.getProperty("report.index", ".test-cache/allure-index.json")),
+                Integer.getInteger("report.keepPerTest", 10),
+                Integer.getInteger("report.maxAgeDays", 0));
+        System.out.println("Allure results: " + report.update(Boolean.getBoolean("report.compact")));
+    }
+}
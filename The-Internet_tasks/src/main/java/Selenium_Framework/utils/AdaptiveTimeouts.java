@@ -0,0 +1,200 @@
+package Selenium_Framework.utils;
+
+import Selenium_Framework.logging.TestLog;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Learns how long each wait actually takes and derives tighter timeouts from it.
+ *
+ * Every successful wait in {@link WaitUtils} records its duration under the
+ * page it happened on and the locator it waited for, or the condition for
+ * waits that are not tied to a single locator. Once a key has enough
+ * samples, its timeout becomes a high percentile of the observed durations
+ * times a multiplier plus a fixed margin, clamped between a minimum and the
+ * timeout the caller asked for. A locator that normally appears in 300 ms thus
+ * fails after about a second instead of burning the full hard-coded budget.
+ * A wait that expires on a learned timeout replaces the key's history with
+ * that timeout: the key falls back to the caller's timeout until it has enough
+ * samples again, and the expired timeout then sits at the top of them, so keys
+ * whose pages genuinely got slower end up with a higher timeout than before.
+ *
+ * The samples are persisted between runs in {@code -Dtimeouts.file} (default
+ * {@code .test-cache/wait-timings.json}). Tuning properties:
+ * {@code timeouts.percentile} (99), {@code timeouts.multiplier} (1.5),
+ * {@code timeouts.marginMillis} (500), {@code timeouts.minMillis} (1000),
+ * {@code timeouts.minSamples} (5) and {@code timeouts.maxSamples} (100).
+ * {@code -Dtimeouts.adaptive=false} restores the fixed timeouts. Timeouts
+ * learned on an idle server do not hold under load, so the load runner turns
+ * them off unless told otherwise, and the wait benchmark starts every strategy
+ * from an empty history that is never saved.
+ */
+public class AdaptiveTimeouts {
+
+    private static final Path FILE = Paths.get(System.getProperty("timeouts.file", ".test-cache/wait-timings.json"));
+    private static final double PERCENTILE = Double.parseDouble(System.getProperty("timeouts.percentile", "99"));
+    private static final double MULTIPLIER = Double.parseDouble(System.getProperty("timeouts.multiplier", "1.5"));
+    private static final long MARGIN_MILLIS = Long.getLong("timeouts.marginMillis", 500);
+    private static final long MIN_MILLIS = Long.getLong("timeouts.minMillis", 1000);
+    private static final int MIN_SAMPLES = Integer.getInteger("timeouts.minSamples", 5);
+    private static final int MAX_SAMPLES = Integer.getInteger("timeouts.maxSamples", 100);
+
+    private static final ThreadLocal<String> currentPage = ThreadLocal.withInitial(() -> "");
+    private static Map<String, Deque<Long>> samples;
+
+    /**
+     * Returns whether timeouts are derived from recorded wait durations.
+     *
+     * @return {@code true} unless {@code -Dtimeouts.adaptive=false} was given.
+     */
+    public static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty("timeouts.adaptive"));
+    }
+
+    /**
+     * Sets the page that subsequent waits on the current thread are attributed to.
+     * Query strings and fragments are ignored.
+     *
+     * @param url The URL that was navigated to.
+     */
+    public static void setCurrentPage(String url) {
+        try {
+            URI uri = URI.create(url);
+            currentPage.set(uri.getHost() == null ? url : uri.getHost() + uri.getPath());
+        } catch (IllegalArgumentException e) {
+            currentPage.set(url);
+        }
+    }
+
+    /**
+     * Returns the timeout to use for a wait.
+     *
+     * @param subject A stable description of what is waited for: the locator, or the
+     *                condition's {@code toString()} for waits not tied to a single locator.
+     * @param upperBound The timeout requested by the caller; never exceeded.
+     * @return The learned timeout, or {@code upperBound} when there is not enough data.
+     */
+    public static Duration timeoutFor(String subject, Duration upperBound) {
+        if (!isEnabled()) {
+            return upperBound;
+        }
+        Deque<Long> recorded = load().get(key(subject));
+        if (recorded == null) {
+            return upperBound;
+        }
+        long[] sorted;
+        synchronized (recorded) {
+            if (recorded.size() < MIN_SAMPLES) {
+                return upperBound;
+            }
+            sorted = recorded.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+        int index = (int) Math.ceil(PERCENTILE / 100.0 * sorted.length) - 1;
+        long millis = (long) (sorted[Math.max(0, Math.min(index, sorted.length - 1))] * MULTIPLIER) + MARGIN_MILLIS;
+        return Duration.ofMillis(Math.min(upperBound.toMillis(), Math.max(MIN_MILLIS, millis)));
+    }
+
+    /**
+     * Records how long a wait took.
+     *
+     * @param subject The description the timeout was asked for with.
+     * @param duration The time until the condition was met.
+     */
+    public static void record(String subject, Duration duration) {
+        if (!isEnabled()) {
+            return;
+        }
+        Deque<Long> recorded = load().computeIfAbsent(key(subject), key -> new ArrayDeque<>());
+        synchronized (recorded) {
+            recorded.addLast(duration.toMillis());
+            while (recorded.size() > MAX_SAMPLES) {
+                recorded.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Records that a wait on a learned timeout expired. The key's history is replaced
+     * by the expired timeout, so the next waits use the caller's timeout again and the
+     * timeout learned afterwards is above the one that expired.
+     *
+     * @param subject The description the timeout was asked for with.
+     * @param timeout The learned timeout that expired.
+     */
+    public static void expired(String subject, Duration timeout) {
+        if (!isEnabled()) {
+            return;
+        }
+        Deque<Long> recorded = load().computeIfAbsent(key(subject), key -> new ArrayDeque<>());
+        synchronized (recorded) {
+            recorded.clear();
+            recorded.addLast(timeout.toMillis());
+        }
+    }
+
+    /**
+     * Forgets every sample, including those from the timings file, e.g. to start a
+     * benchmark from a known state. The file itself is left alone.
+     */
+    public static synchronized void reset() {
+        samples = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Writes the recorded samples to the timings file so the next run starts with them.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public static void save() throws IOException {
+        if (!isEnabled() || samples == null) {
+            return;
+        }
+        Map<String, List<Long>> json = new LinkedHashMap<>();
+        for (Map.Entry<String, Deque<Long>> entry : samples.entrySet()) {
+            synchronized (entry.getValue()) {
+                json.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            }
+        }
+        Files.createDirectories(FILE.toAbsolutePath().getParent());
+        Files.writeString(FILE, new Json().toJson(json), StandardCharsets.UTF_8);
+    }
+
+    private static String key(String subject) {
+        return currentPage.get() + " | " + subject;
+    }
+
+    private static synchronized Map<String, Deque<Long>> load() {
+        if (samples == null) {
+            samples = new ConcurrentHashMap<>();
+            if (Files.exists(FILE)) {
+                try {
+                    Map<String, Object> json = new Json().toType(Files.readString(FILE), Json.MAP_TYPE);
+                    for (Map.Entry<String, Object> entry : json.entrySet()) {
+                        Deque<Long> recorded = new ArrayDeque<>();
+                        for (Object value : (List<?>) entry.getValue()) {
+                            recorded.add(((Number) value).longValue());
+                        }
+                        samples.put(entry.getKey(), recorded);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    TestLog.warn("Ignoring unreadable wait timings " + FILE + ": " + e.getMessage());
+                }
+            }
+        }
+        return samples;
+    }
+}
@@ -1,11 +1,17 @@
 package Selenium_Framework.utils;
 
 import Selenium_Framework.base.BaseDriver;
+import Selenium_Framework.base.TabRegistry;
+import Selenium_Framework.cache.ResultCache;
+import Selenium_Framework.pipeline.NavigationPipeline;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
  * A utility class providing helper methods for browser actions,
@@ -14,22 +20,66 @@ import java.util.List;
  */
 public class BrowserUtils {
 
+    // How long a tab that was just opened may take to show up in the session's tab registry
+    private static final Duration TAB_EVENT_TIMEOUT = Duration.ofSeconds(5);
+
     /**
      * Switches to a specific browser tab using its index.
-     * The tab indices are zero-based.
+     * The tab indices are zero-based and follow the order in which the tabs were opened
+     * when the session has a {@link TabRegistry}; otherwise the browser's handle order is used.
+     * A tab that was just opened is waited for briefly, as its registry event may still be on its way.
      *
      * @param index The index of the tab to switch to (e.g., 0 for the first tab).
      * @throws IllegalArgumentException if the provided index is out of the valid range of tabs.
      */
     public static void switchToTab(int index) {
-        List<String> tabs = new ArrayList<>(BaseDriver.getDriver().getWindowHandles());
-        if (index >= 0 && index < tabs.size()) {
-            BaseDriver.getDriver().switchTo().window(tabs.get(index));
+        if (index < 0) {
+            throw new IllegalArgumentException("Invalid tab index: " + index);
+        }
+        Optional<TabRegistry> registry = TabRegistry.of(BaseDriver.getDriver());
+        List<String> tabs = new ArrayList<>();
+        if (registry.isPresent()) {
+            registry.get().awaitCount(index + 1, TAB_EVENT_TIMEOUT).forEach(tab -> tabs.add(tab.getHandle()));
+        } else {
+            tabs.addAll(BaseDriver.getDriver().getWindowHandles());
+        }
+        if (index < tabs.size()) {
+            switchToHandle(tabs.get(index));
         } else {
             throw new IllegalArgumentException("Invalid tab index: " + index);
         }
     }
-    
+
+    /**
+     * Switches to the first tab, in opening order, whose title equals the given name.
+     * A tab that is still opening is waited for up to the given timeout.
+     *
+     * @param name The title of the tab.
+     * @param timeoutSeconds How long to wait for such a tab to appear.
+     * @throws NoSuchWindowException if no such tab appears in time.
+     */
+    public static void switchToTab(String name, int timeoutSeconds) {
+        switchToTab(tab -> name.equals(tab.getTitle()), timeoutSeconds);
+    }
+
+    /**
+     * Switches to the first tab, in opening order, that matches the predicate.
+     * A tab that is still opening is waited for up to the given timeout. Only the
+     * session's {@link TabRegistry} is consulted, so no window handles are queried.
+     *
+     * @param predicate The condition on the tab's handle, URL or title.
+     * @param timeoutSeconds How long to wait for a matching tab to appear.
+     * @throws NoSuchWindowException if no matching tab appears in time.
+     * @throws IllegalStateException if the session's tabs are not tracked.
+     */
+    public static void switchToTab(Predicate<TabRegistry.Tab> predicate, int timeoutSeconds) {
+        TabRegistry registry = TabRegistry.of(BaseDriver.getDriver())
+                .orElseThrow(() -> new IllegalStateException("The session has no tab registry (BiDi unavailable?)"));
+        TabRegistry.Tab tab = registry.await(predicate, Duration.ofSeconds(timeoutSeconds))
+                .orElseThrow(() -> new NoSuchWindowException("No matching tab among " + registry.getTabs()));
+        switchToHandle(tab.getHandle());
+    }
+
     /**
      * Gets the URL of the current browser page.
      *
@@ -41,11 +91,33 @@ public class BrowserUtils {
 
     /**
      * Closes the current browser tab and switches the WebDriver focus back to the first tab.
+     *
+     * @throws NoSuchWindowException if the closed tab was the last one.
      */
     public static void closeCurrentTabAndSwitchToFirst() {
-        BaseDriver.getDriver().close();
-        List<String> tabs = new ArrayList<>(BaseDriver.getDriver().getWindowHandles());
-        BaseDriver.getDriver().switchTo().window(tabs.get(0));
+        WebDriver driver = BaseDriver.getDriver();
+        Optional<TabRegistry> registry = TabRegistry.of(driver);
+        // Asked of the driver, as the registry misses switches made without switchToHandle
+        String closed = driver.getWindowHandle();
+        driver.close();
+        List<String> tabs = new ArrayList<>();
+        if (registry.isPresent()) {
+            // The destroyed event may still be on its way; drop the tab right away
+            registry.get().forget(closed);
+            registry.get().getTabs().forEach(tab -> tabs.add(tab.getHandle()));
+        } else {
+            tabs.addAll(driver.getWindowHandles());
+        }
+        if (tabs.isEmpty()) {
+            throw new NoSuchWindowException("No tab left to switch to after closing " + closed);
+        }
+        switchToHandle(tabs.get(0));
+    }
+
+    // Switches windows and keeps the registry's idea of the current tab in sync
+    private static void switchToHandle(String handle) {
+        BaseDriver.getDriver().switchTo().window(handle);
+        TabRegistry.of(BaseDriver.getDriver()).ifPresent(registry -> registry.setCurrent(handle));
     }
 
     /**
@@ -57,11 +129,24 @@ public class BrowserUtils {
 
     /**
      * Navigates to a specified URL. This is equivalent to typing a URL into the address bar.
+     * Once the page has loaded, its performance timings are recorded through {@link PerformanceUtils}
+     * and the URL is remembered as a fixture of the running test for {@link ResultCache}.
+     * If {@link NavigationPipeline} has already preloaded the URL in a background tab,
+     * that tab is taken over instead of navigating again.
      *
      * @param url The URL to navigate to.
      */
     public static void navigateToURL(String url) {
-        BaseDriver.getDriver().navigate().to(url);
+        WebDriver driver = BaseDriver.getDriver();
+        boolean preloaded = NavigationPipeline.takeOver(driver, url);
+        if (!preloaded) {
+            driver.navigate().to(url);
+        }
+        ResultCache.recordNavigation(url);
+        AdaptiveTimeouts.setCurrentPage(url);
+        if (PerformanceUtils.isEnabled()) {
+            PerformanceUtils.collectTimings(url, preloaded);
+        }
     }
 
     /**
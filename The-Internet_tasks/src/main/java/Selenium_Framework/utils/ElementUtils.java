@@ -1,13 +1,9 @@
 package Selenium_Framework.utils;
 
-import Selenium_Framework.base.BaseDriver;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.Select;
 
-import java.time.Duration;
 import java.util.List;
 
 /**
@@ -37,8 +33,7 @@ public class ElementUtils {
      * @return A {@link List} of {@link WebElement} objects.
      */
     public static List<WebElement> getElements(By locator) {
-        WebDriverWait wait = new WebDriverWait(BaseDriver.getDriver(), Duration.ofSeconds(10));
-        return wait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(locator));
+        return WaitUtils.waitForPresenceOfAll(locator, 10);
     }
 
     /**
@@ -1,11 +1,14 @@
 package Selenium_Framework.utils;
 
 import static Selenium_Framework.utils.ElementUtils.getElement;
+import Selenium_Framework.base.BaseDriver;
 import java.awt.AWTException;
 import java.awt.Robot;
 import java.awt.event.KeyEvent;
 import org.openqa.selenium.By;
 import org.openqa.selenium.Keys;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import java.time.Duration;
 
 /**
  * A utility class for sending keyboard actions to elements.
@@ -103,7 +106,10 @@ public class KeyboardUtils {
      */
     public static void basicAuthUsingRobot(String name, String pass) throws AWTException {
         Robot robot = new Robot();
-        WaitUtils.setImplicitWait(1); // Small wait to allow the popup to appear.
+        // The popup is up once nothing but the challenged request is left. No abort probes here:
+        // their scripts would queue up behind the navigation that is waiting for credentials.
+        new WebDriverWait(BaseDriver.getDriver(), Duration.ofSeconds(10), Duration.ofMillis(50))
+                .until(WaitUtils.networkIdle(300));
 
         // Type username
         for (char c : name.toCharArray()) {
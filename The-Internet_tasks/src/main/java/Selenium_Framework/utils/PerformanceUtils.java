@@ -0,0 +1,363 @@
+package Selenium_Framework.utils;
+
+import Selenium_Framework.base.BaseDriver;
+import Selenium_Framework.base.StaticPageDriver;
+import Selenium_Framework.base.ThrottlingProfile;
+import io.qameta.allure.Allure;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A utility class for collecting front-end performance data from the browser.
+ * After every navigation it reads the page's Navigation Timing, Paint Timing
+ * (first paint, first contentful paint, largest contentful paint) and Resource
+ * Timing entries in a single synchronous script call, keeps them per URL for
+ * the whole run, and can export the aggregated results as CSV and JSON and
+ * attach them to the Allure report. Each sample, including its resource list,
+ * is also attached to the running test when {@code -Dperf.attachments=true} is
+ * given; by default only the aggregated export is attached, so a navigation
+ * adds no report file of its own.
+ * Samples are tagged with the session's {@link ThrottlingProfile} and
+ * aggregated per profile and URL, so runs under different network and CPU
+ * conditions can be compared side by side.
+ *
+ * Collection is enabled by default and can be switched off with
+ * {@code -Dperf.timings=false}.
+ */
+public class PerformanceUtils {
+
+    /** The metrics that are aggregated per URL, in CSV column order. */
+    public static final List<String> METRICS = List.of(
+            "dns", "connect", "ttfb", "response", "domInteractive",
+            "domContentLoaded", "load", "firstPaint", "firstContentfulPaint",
+            "largestContentfulPaint", "resourceCount", "transferSize");
+
+    // Not measurable for a page loaded in a background tab, which only paints once it is shown
+    private static final List<String> PAINT_METRICS = List.of(
+            "firstPaint", "firstContentfulPaint", "largestContentfulPaint");
+
+    // Reads every timing in one round trip. LCP is only exposed through a PerformanceObserver;
+    // a buffered observer holds the entries so far, which takeRecords returns without waiting.
+    // The resource list is only returned when it is attached (arguments[0]).
+    private static final String TIMING_SCRIPT =
+            "var nav = performance.getEntriesByType('navigation')[0] || {};"
+            + "var paint = {};"
+            + "performance.getEntriesByType('paint').forEach(function (p) { paint[p.name] = p.startTime; });"
+            + "var lcp = null;"
+            + "try {"
+            + "  var observer = new PerformanceObserver(function () { });"
+            + "  observer.observe({type: 'largest-contentful-paint', buffered: true});"
+            + "  var entries = observer.takeRecords();"
+            + "  observer.disconnect();"
+            + "  if (entries.length) { lcp = entries[entries.length - 1].startTime; }"
+            + "} catch (e) { }"
+            + "var resources = performance.getEntriesByType('resource');"
+            + "return {"
+            + "  dns: nav.domainLookupEnd - nav.domainLookupStart,"
+            + "  connect: nav.connectEnd - nav.connectStart,"
+            + "  ttfb: nav.responseStart - nav.requestStart,"
+            + "  response: nav.responseEnd - nav.responseStart,"
+            + "  domInteractive: nav.domInteractive,"
+            + "  domContentLoaded: nav.domContentLoadedEventEnd,"
+            + "  load: nav.loadEventEnd,"
+            + "  firstPaint: paint['first-paint'],"
+            + "  firstContentfulPaint: paint['first-contentful-paint'],"
+            + "  largestContentfulPaint: lcp,"
+            + "  resourceCount: resources.length,"
+            + "  transferSize: (nav.transferSize || 0) + resources.reduce(function (s, r) { return s + (r.transferSize || 0); }, 0),"
+            + "  resources: arguments[0] ? resources.map(function (r) {"
+            + "    return {name: r.name, initiatorType: r.initiatorType, duration: r.duration,"
+            + "            transferSize: r.transferSize || 0};"
+            + "  }) : []"
+            + "};";
+
+    private static final Map<String, List<PageTiming>> TIMINGS =
+            Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Returns whether timings are collected after each navigation.
+     *
+     * @return {@code true} unless {@code -Dperf.timings=false} was given.
+     */
+    public static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty("perf.timings"));
+    }
+
+    /**
+     * Returns whether every sample is attached to the test it was taken in.
+     *
+     * @return {@code true} if {@code -Dperf.attachments=true} was given.
+     */
+    public static boolean isAttachingSamples() {
+        return Boolean.getBoolean("perf.attachments");
+    }
+
+    /**
+     * Reads the timings of the currently loaded page and records them under the
+     * given URL and the session's throttling profile. With {@link #isAttachingSamples()}
+     * they are also attached to the running Allure test. The paint metrics of a page that was preloaded in a
+     * background tab are left out of the sample.
+     * Collection problems never fail the calling test; they only skip the sample.
+     *
+     * @param url The URL the browser was navigated to, used as the aggregation key.
+     * @param preloaded Whether the page was loaded in a background tab and only shown afterwards.
+     * @return The collected {@link PageTiming}, or {@code null} if the page could not be measured.
+     */
+    @SuppressWarnings("unchecked")
+    public static PageTiming collectTimings(String url, boolean preloaded) {
+        WebDriver driver = BaseDriver.getDriver();
+        if (!(driver instanceof JavascriptExecutor) || driver instanceof StaticPageDriver) {
+            return null;
+        }
+        Map<String, Object> raw;
+        try {
+            raw = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(TIMING_SCRIPT, isAttachingSamples());
+        } catch (WebDriverException | ClassCastException e) {
+            return null;
+        }
+        if (raw == null) {
+            return null;
+        }
+        if (preloaded) {
+            raw = new HashMap<>(raw);
+            raw.keySet().removeAll(PAINT_METRICS);
+        }
+        PageTiming timing = new PageTiming(url, ThrottlingProfile.getProfile(driver), raw);
+        record(timing);
+        if (isAttachingSamples()) {
+            Allure.addAttachment("Page timings [" + timing.getProfile() + "]: " + url, "application/json",
+                    new Json().toJson(timing.toJson()), ".json");
+        }
+        return timing;
+    }
+
+    // Adds a sample to the aggregation of its profile and URL
+    static void record(PageTiming timing) {
+        TIMINGS.computeIfAbsent(key(timing.getProfile(), timing.getUrl()),
+                key -> Collections.synchronizedList(new ArrayList<>())).add(timing);
+    }
+
+    /**
+     * Aggregates every recorded sample per throttling profile and URL.
+     *
+     * @return A map of {@code "<profile> <url>"} to {@link TimingSummary}, in first-visited order.
+     */
+    public static Map<String, TimingSummary> summarize() {
+        Map<String, TimingSummary> summaries = new LinkedHashMap<>();
+        synchronized (TIMINGS) {
+            for (Map.Entry<String, List<PageTiming>> entry : TIMINGS.entrySet()) {
+                synchronized (entry.getValue()) {
+                    List<PageTiming> timings = new ArrayList<>(entry.getValue());
+                    summaries.put(entry.getKey(), new TimingSummary(timings.get(0).getProfile(), timings.get(0).getUrl(), timings));
+                }
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Writes the aggregated timings to {@code page-timings.csv} and {@code page-timings.json}
+     * in the given directory and attaches both files to the Allure report.
+     *
+     * @param directory The directory to write the export files into; it is created if missing.
+     * @throws IOException if the files cannot be written.
+     */
+    public static void exportResults(Path directory) throws IOException {
+        Map<String, TimingSummary> summaries = summarize();
+        if (summaries.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(directory);
+
+        StringBuilder csv = new StringBuilder("profile,url,samples");
+        for (String metric : METRICS) {
+            csv.append(',').append(metric).append("_mean")
+               .append(',').append(metric).append("_p50")
+               .append(',').append(metric).append("_p95")
+               .append(',').append(metric).append("_max");
+        }
+        csv.append('\n');
+        List<Map<String, Object>> json = new ArrayList<>();
+        for (TimingSummary summary : summaries.values()) {
+            csv.append(summary.toCsvRow()).append('\n');
+            json.add(summary.toJson());
+        }
+        String jsonText = new Json().toJson(json);
+
+        Files.writeString(directory.resolve("page-timings.csv"), csv, StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve("page-timings.json"), jsonText, StandardCharsets.UTF_8);
+        Allure.addAttachment("Page timings (CSV)", "text/csv", csv.toString(), ".csv");
+        Allure.addAttachment("Page timings (JSON)", "application/json", jsonText, ".json");
+    }
+
+    /**
+     * Discards every recorded sample.
+     */
+    public static void reset() {
+        TIMINGS.clear();
+    }
+
+    private static String key(String profile, String url) {
+        return profile + " " + url;
+    }
+
+    /**
+     * A single measurement of one page load. All times are in milliseconds
+     * relative to the start of the navigation; sizes are in bytes.
+     */
+    public static class PageTiming {
+
+        private final String url;
+        private final String profile;
+        private final long timestamp = System.currentTimeMillis();
+        private final Map<String, Double> metrics = new LinkedHashMap<>();
+        private final List<Object> resources;
+
+        PageTiming(String url, String profile, Map<String, Object> raw) {
+            this.url = url;
+            this.profile = profile;
+            for (String metric : METRICS) {
+                Object value = raw.get(metric);
+                metrics.put(metric, value instanceof Number ? ((Number) value).doubleValue() : null);
+            }
+            Object entries = raw.get("resources");
+            this.resources = entries instanceof List ? new ArrayList<>((List<?>) entries) : List.of();
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        /** Returns the {@link ThrottlingProfile} the page was loaded under. */
+        public String getProfile() {
+            return profile;
+        }
+
+        /**
+         * Returns the value of one of the {@link #METRICS}.
+         *
+         * @param metric The metric name.
+         * @return The value, or {@code null} if the browser did not report it.
+         */
+        public Double getMetric(String metric) {
+            return metrics.get(metric);
+        }
+
+        public Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("url", url);
+            json.put("profile", profile);
+            json.put("timestamp", timestamp);
+            json.putAll(metrics);
+            json.put("resources", resources);
+            return json;
+        }
+    }
+
+    /**
+     * Aggregated statistics of all samples recorded for one URL under one throttling profile.
+     */
+    public static class TimingSummary {
+
+        private final String profile;
+        private final String url;
+        private final int samples;
+        private final Map<String, double[]> sorted = new LinkedHashMap<>();
+
+        TimingSummary(String profile, String url, List<PageTiming> timings) {
+            this.profile = profile;
+            this.url = url;
+            this.samples = timings.size();
+            for (String metric : METRICS) {
+                sorted.put(metric, timings.stream()
+                        .map(timing -> timing.getMetric(metric))
+                        .filter(value -> value != null && !value.isNaN())
+                        .mapToDouble(Double::doubleValue)
+                        .sorted()
+                        .toArray());
+            }
+        }
+
+        public String getProfile() {
+            return profile;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        public double mean(String metric) {
+            double[] values = sorted.get(metric);
+            return values.length == 0 ? Double.NaN : Arrays.stream(values).average().getAsDouble();
+        }
+
+        public double percentile(String metric, double percentile) {
+            double[] values = sorted.get(metric);
+            if (values.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * values.length) - 1;
+            return values[Math.max(0, Math.min(index, values.length - 1))];
+        }
+
+        public double max(String metric) {
+            double[] values = sorted.get(metric);
+            return values.length == 0 ? Double.NaN : values[values.length - 1];
+        }
+
+        String toCsvRow() {
+            StringBuilder row = new StringBuilder(profile).append(',')
+                    .append('"').append(url.replace("\"", "\"\"")).append('"').append(',').append(samples);
+            for (String metric : METRICS) {
+                row.append(',').append(format(mean(metric)))
+                   .append(',').append(format(percentile(metric, 50)))
+                   .append(',').append(format(percentile(metric, 95)))
+                   .append(',').append(format(max(metric)));
+            }
+            return row.toString();
+        }
+
+        Map<String, Object> toJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("profile", profile);
+            json.put("url", url);
+            json.put("samples", samples);
+            for (String metric : METRICS) {
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("mean", jsonNumber(mean(metric)));
+                stats.put("p50", jsonNumber(percentile(metric, 50)));
+                stats.put("p95", jsonNumber(percentile(metric, 95)));
+                stats.put("max", jsonNumber(max(metric)));
+                json.put(metric, stats);
+            }
+            return json;
+        }
+
+        private static String format(double value) {
+            return Double.isNaN(value) ? "" : String.format(Locale.ROOT, "%.1f", value);
+        }
+
+        private static Object jsonNumber(double value) {
+            return Double.isNaN(value) ? null : Math.round(value * 10) / 10.0;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package Selenium_Framework.utils;
+
+import Selenium_Framework.base.BrowserLogStream;
+import Selenium_Framework.base.StaticPageDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Conditions that end a wait early because the page is clearly broken, for
+ * example when the document was served with an HTTP error status, the page
+ * threw an uncaught JavaScript exception, or an error banner is shown.
+ *
+ * {@link WaitUtils} checks the global conditions, plus any conditions passed to
+ * an individual wait, every time the awaited condition is not yet met. When one
+ * of them fires the wait ends immediately with a {@link WaitAbortedException}
+ * instead of running into its timeout. Waits that succeed on the first poll pay
+ * nothing extra.
+ *
+ * The global conditions are taken from {@code -Dwait.abortOn} (default
+ * {@code http,exceptions}; {@code none} disables them) and
+ * {@code -Dwait.errorSelectors}, a comma-separated list of CSS selectors of
+ * error banners.
+ */
+public class WaitAbortConditions {
+
+    /**
+     * A check that decides whether a running wait should be abandoned.
+     */
+    @FunctionalInterface
+    public interface Condition {
+
+        /**
+         * Checks the page.
+         *
+         * @param driver The driver of the session being waited on.
+         * @param logSequenceAtStart The {@link BrowserLogStream} position when the wait started,
+         *                           so that only events raised during the wait are considered.
+         * @return A diagnostic message if the wait should be aborted, otherwise {@code null}.
+         */
+        String check(WebDriver driver, long logSequenceAtStart);
+    }
+
+    private static final String STATUS_SCRIPT =
+            "var nav = performance.getEntriesByType('navigation')[0];"
+            + "return nav && nav.responseStatus ? nav.responseStatus : 0;";
+
+    private static final List<Condition> globalConditions = new CopyOnWriteArrayList<>(defaultConditions());
+
+    /**
+     * Aborts when the current document was served with a 4xx or 5xx status.
+     *
+     * @return The condition.
+     */
+    public static Condition httpErrorStatus() {
+        return (driver, logSequenceAtStart) -> {
+            if (!(driver instanceof JavascriptExecutor) || driver instanceof StaticPageDriver) {
+                return null;
+            }
+            Object status = ((JavascriptExecutor) driver).executeScript(STATUS_SCRIPT);
+            if (status instanceof Number && ((Number) status).intValue() >= 400) {
+                return "Page " + driver.getCurrentUrl() + " was served with HTTP status " + status;
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Aborts when the page threw an uncaught JavaScript exception since the wait started.
+     * Requires the session's {@link BrowserLogStream}; without it the condition never fires.
+     *
+     * @return The condition.
+     */
+    public static Condition consoleExceptions() {
+        return (driver, logSequenceAtStart) -> {
+            for (BrowserLogStream.Entry entry : BrowserLogStream.getEntries(driver)) {
+                if (entry.getSequence() > logSequenceAtStart && "exception".equals(entry.getSource())) {
+                    return "Uncaught JavaScript exception: " + entry.getText();
+                }
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Aborts when any of the given error elements is displayed.
+     *
+     * @param selectors Locators of error banners or error page markers.
+     * @return The condition.
+     */
+    public static Condition errorElements(By... selectors) {
+        List<By> locators = Arrays.asList(selectors);
+        return (driver, logSequenceAtStart) -> {
+            for (By locator : locators) {
+                for (WebElement element : driver.findElements(locator)) {
+                    if (element.isDisplayed()) {
+                        return "Error element " + locator + " is shown: " + element.getText();
+                    }
+                }
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Adds a condition that is checked by every wait.
+     *
+     * @param condition The condition to add.
+     */
+    public static void addGlobal(Condition condition) {
+        globalConditions.add(condition);
+    }
+
+    /**
+     * Removes all global conditions, including the defaults.
+     */
+    public static void clearGlobal() {
+        globalConditions.clear();
+    }
+
+    /**
+     * Checks the global conditions and the given per-wait conditions.
+     *
+     * @param driver The driver of the session being waited on.
+     * @param logSequenceAtStart The {@link BrowserLogStream} position when the wait started.
+     * @param waitConditions Additional conditions of this wait.
+     * @throws WaitAbortedException if any condition fires.
+     */
+    static void check(WebDriver driver, long logSequenceAtStart, Condition... waitConditions) {
+        List<Condition> conditions = new ArrayList<>(globalConditions);
+        conditions.addAll(Arrays.asList(waitConditions));
+        for (Condition condition : conditions) {
+            String diagnosis;
+            try {
+                diagnosis = condition.check(driver, logSequenceAtStart);
+            } catch (WebDriverException e) {
+                // A failing probe (e.g. an open alert) is no reason to abort the wait
+                continue;
+            }
+            if (diagnosis != null) {
+                throw new WaitAbortedException(diagnosis);
+            }
+        }
+    }
+
+    private static List<Condition> defaultConditions() {
+        List<Condition> conditions = new ArrayList<>();
+        for (String name : System.getProperty("wait.abortOn", "http,exceptions").split(",")) {
+            switch (name.trim()) {
+                case "http":
+                    conditions.add(httpErrorStatus());
+                    break;
+                case "exceptions":
+                    conditions.add(consoleExceptions());
+                    break;
+                case "none":
+                case "":
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown wait abort condition: " + name);
+            }
+        }
+        String selectors = System.getProperty("wait.errorSelectors", "");
+        if (!selectors.isBlank()) {
+            conditions.add(errorElements(Arrays.stream(selectors.split(","))
+                    .map(String::trim)
+                    .map(By::cssSelector)
+                    .toArray(By[]::new)));
+        }
+        return conditions;
+    }
+
+    /**
+     * Thrown when a wait is abandoned because an abort condition fired.
+     */
+    public static class WaitAbortedException extends WebDriverException {
+
+        private static final long serialVersionUID = 1L;
+
+        public WaitAbortedException(String message) {
+            super(message);
+        }
+    }
+}
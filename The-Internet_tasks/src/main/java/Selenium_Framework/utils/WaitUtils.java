@@ -1,12 +1,17 @@
 package Selenium_Framework.utils;
 
 import Selenium_Framework.base.BaseDriver;
+import Selenium_Framework.base.BrowserLogStream;
+import Selenium_Framework.base.NetworkActivity;
 import org.openqa.selenium.*;
+import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.FluentWait;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 
 /**
@@ -14,9 +19,16 @@ import java.util.function.Function;
  * This class provides a centralized way to manage different types of waits,
  * ensuring synchronization between the test script and the web browser by using
  * By locators to find elements.
+ *
+ * The timeouts passed to the locator-based waits are upper bounds: the actual
+ * timeout is learned from earlier waits by {@link AdaptiveTimeouts}, and a wait
+ * ends early when one of the {@link WaitAbortConditions} reports a broken page.
  */
 public class WaitUtils {
 
+    // WebDriverWait's own default
+    private static final Duration DEFAULT_POLLING = Duration.ofMillis(500);
+
     // ======================
     // ✅ VISIBILITY
     // ======================
@@ -28,12 +40,31 @@ public class WaitUtils {
      *
      * @param locator The {@link By} locator used to find the element.
      * @param timeoutSeconds The maximum time in seconds to wait for the element's visibility.
+     * @param abortOn Conditions that end this wait early, in addition to the global {@link WaitAbortConditions}.
      * @return The {@link WebElement} once it is visible.
      * @throws TimeoutException if the element is not visible within the specified time.
+     * @throws WaitAbortConditions.WaitAbortedException if an abort condition fires first.
      */
-    public static WebElement waitForVisibility(By locator, int timeoutSeconds) {
-        WebDriverWait wait = new WebDriverWait(BaseDriver.getDriver(), Duration.ofSeconds(timeoutSeconds));
-        return wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+    public static WebElement waitForVisibility(By locator, int timeoutSeconds, WaitAbortConditions.Condition... abortOn) {
+        return await(locator, timeoutSeconds, ExpectedConditions.visibilityOfElementLocated(locator), abortOn);
+    }
+
+    // ======================
+    // ✅ PRESENCE OF ALL
+    // ======================
+
+    /**
+     * Waits for at least one element matching the locator to be present in the DOM
+     * and returns all matching elements.
+     *
+     * @param locator The {@link By} locator used to find the elements.
+     * @param timeoutSeconds The maximum time in seconds to wait for the elements' presence.
+     * @param abortOn Conditions that end this wait early, in addition to the global {@link WaitAbortConditions}.
+     * @return A {@link List} of the matching {@link WebElement} objects.
+     * @throws TimeoutException if no element is present within the specified time.
+     */
+    public static List<WebElement> waitForPresenceOfAll(By locator, int timeoutSeconds, WaitAbortConditions.Condition... abortOn) {
+        return await(locator, timeoutSeconds, ExpectedConditions.presenceOfAllElementsLocatedBy(locator), abortOn);
     }
 
     // ======================
@@ -46,12 +77,12 @@ public class WaitUtils {
      *
      * @param locator The {@link By} locator used to find the element.
      * @param timeoutSeconds The maximum time in seconds to wait for clickability.
+     * @param abortOn Conditions that end this wait early, in addition to the global {@link WaitAbortConditions}.
      * @return The {@link WebElement} once it is clickable.
      * @throws TimeoutException if the element is not clickable within the specified time.
      */
-    public static WebElement waitForClickability(By locator, int timeoutSeconds) {
-        WebDriverWait wait = new WebDriverWait(BaseDriver.getDriver(), Duration.ofSeconds(timeoutSeconds));
-        return wait.until(ExpectedConditions.elementToBeClickable(locator));
+    public static WebElement waitForClickability(By locator, int timeoutSeconds, WaitAbortConditions.Condition... abortOn) {
+        return await(locator, timeoutSeconds, ExpectedConditions.elementToBeClickable(locator), abortOn);
     }
 
     // ======================
@@ -64,12 +95,12 @@ public class WaitUtils {
      *
      * @param locator The {@link By} locator used to find the element.
      * @param timeoutSeconds The maximum time in seconds to wait for the element's presence.
+     * @param abortOn Conditions that end this wait early, in addition to the global {@link WaitAbortConditions}.
      * @return The {@link WebElement} once it is present in the DOM.
      * @throws TimeoutException if the element is not present within the specified time.
      */
-    public static WebElement waitForPresence(By locator, int timeoutSeconds) {
-        WebDriverWait wait = new WebDriverWait(BaseDriver.getDriver(), Duration.ofSeconds(timeoutSeconds));
-        return wait.until(ExpectedConditions.presenceOfElementLocated(locator));
+    public static WebElement waitForPresence(By locator, int timeoutSeconds, WaitAbortConditions.Condition... abortOn) {
+        return await(locator, timeoutSeconds, ExpectedConditions.presenceOfElementLocated(locator), abortOn);
     }
 
     // ======================
@@ -82,11 +113,11 @@ public class WaitUtils {
      * @param locator The {@link By} locator used to find the element.
      * @param text The text string expected to be in the element.
      * @param timeoutSeconds The maximum time in seconds to wait for the text.
+     * @param abortOn Conditions that end this wait early, in addition to the global {@link WaitAbortConditions}.
      * @return {@code true} if the text is found within the specified time, otherwise throws {@link TimeoutException}.
      */
-    public static boolean waitForTextToBePresent(By locator, String text, int timeoutSeconds) {
-        WebDriverWait wait = new WebDriverWait(BaseDriver.getDriver(), Duration.ofSeconds(timeoutSeconds));
-        return wait.until(ExpectedConditions.textToBePresentInElementLocated(locator, text));
+    public static boolean waitForTextToBePresent(By locator, String text, int timeoutSeconds, WaitAbortConditions.Condition... abortOn) {
+        return await(locator, timeoutSeconds, ExpectedConditions.textToBePresentInElementLocated(locator, text), abortOn);
     }
 
     // ======================
@@ -99,11 +130,82 @@ public class WaitUtils {
      *
      * @param locator The {@link By} locator used to find the element.
      * @param timeoutSeconds The maximum time in seconds to wait.
+     * @param abortOn Conditions that end this wait early, in addition to the global {@link WaitAbortConditions}.
      * @return {@code true} if the element becomes invisible, otherwise throws {@link TimeoutException}.
      */
-    public static boolean waitForInvisibility(By locator, int timeoutSeconds) {
-        WebDriverWait wait = new WebDriverWait(BaseDriver.getDriver(), Duration.ofSeconds(timeoutSeconds));
-        return wait.until(ExpectedConditions.invisibilityOfElementLocated(locator));
+    public static boolean waitForInvisibility(By locator, int timeoutSeconds, WaitAbortConditions.Condition... abortOn) {
+        return await(locator, timeoutSeconds, ExpectedConditions.invisibilityOfElementLocated(locator), abortOn);
+    }
+
+    // ======================
+    // ✅ NETWORK IDLE
+    // ======================
+
+    /**
+     * Returns a condition that holds once the session has had no requests in flight,
+     * as seen by {@link NetworkActivity}, for the given quiet period. The period starts
+     * no earlier than this call, so create the condition right before waiting on it.
+     * It can be combined with DOM conditions through {@link ExpectedConditions#and}.
+     * Sessions whose requests are not tracked count as idle.
+     *
+     * @param idleMillis How long no request may have been in flight, in milliseconds.
+     * @return The condition.
+     */
+    public static ExpectedCondition<Boolean> networkIdle(int idleMillis) {
+        long since = System.nanoTime();
+        Duration quiet = Duration.ofMillis(idleMillis);
+        return new ExpectedCondition<Boolean>() {
+            @Override
+            public Boolean apply(WebDriver driver) {
+                return NetworkActivity.of(driver).map(activity -> activity.isIdle(quiet, since)).orElse(true);
+            }
+
+            @Override
+            public String toString() {
+                return "network idle for " + idleMillis + " ms";
+            }
+        };
+    }
+
+    /**
+     * Waits until the page has stopped making requests and, at the same moment, every
+     * given DOM condition holds. This replaces fixed delays after actions that start
+     * XHR or fetch calls: the wait takes exactly as long as the page is busy.
+     * The network state is read locally, so only the DOM conditions cost round trips.
+     * Like the locator-based waits, the timeout is an upper bound for the learned one,
+     * and the wait ends early when an abort condition fires.
+     *
+     * @param idleMillis How long no request may have been in flight, in milliseconds.
+     * @param timeoutSeconds The maximum time in seconds to wait.
+     * @param alsoWaitFor DOM conditions that must hold together with network idle.
+     * @return {@code true} once all conditions hold, otherwise throws {@link TimeoutException}.
+     * @throws WaitAbortConditions.WaitAbortedException if an abort condition fires first.
+     */
+    public static boolean waitForNetworkIdle(int idleMillis, int timeoutSeconds, ExpectedCondition<?>... alsoWaitFor) {
+        List<ExpectedCondition<?>> conditions = new ArrayList<>();
+        conditions.add(networkIdle(idleMillis));
+        conditions.addAll(List.of(alsoWaitFor));
+        ExpectedCondition<Boolean> all = ExpectedConditions.and(conditions.toArray(new ExpectedCondition<?>[0]));
+        // Polled more often than the DOM waits, as the quiet period is checked locally
+        return await(all.toString(), timeoutSeconds, Duration.ofMillis(100), all);
+    }
+
+    // ======================
+    // ✅ ALERT
+    // ======================
+
+    /**
+     * Waits for a JavaScript alert, confirm or prompt to open.
+     * The abort conditions are not checked: their scripts would run into the alert
+     * as it opens, and the browser dismisses an alert that a command runs into.
+     *
+     * @param timeoutSeconds The maximum time in seconds to wait.
+     * @return The {@link Alert} once it is open.
+     * @throws TimeoutException if no alert opens within the specified time.
+     */
+    public static Alert waitForAlert(int timeoutSeconds) {
+        return new WebDriverWait(BaseDriver.getDriver(), Duration.ofSeconds(timeoutSeconds))
+                .until(ExpectedConditions.alertIsPresent());
     }
 
     // ======================
@@ -135,6 +237,85 @@ public class WaitUtils {
         });
     }
 
+    // ======================
+    // ✅ ADAPTIVE TIMEOUT
+    // ======================
+
+    /**
+     * Runs an explicit wait whose timeout is learned by {@link AdaptiveTimeouts}.
+     * The requested timeout is only an upper bound: once enough waits for the same
+     * locator on the same page were observed, a much shorter timeout is used so that
+     * genuine failures surface quickly. The observed duration is recorded afterwards.
+     *
+     * Whenever the condition is not met yet, the {@link WaitAbortConditions} are
+     * checked, so that a broken page ends the wait at once instead of at its timeout.
+     *
+     * @param locator The {@link By} locator the condition waits for.
+     * @param timeoutSeconds The maximum time in seconds to wait.
+     * @param condition The condition to wait for.
+     * @param abortOn Conditions that end this wait early, in addition to the global ones.
+     * @return The value returned by the condition.
+     * @throws TimeoutException if the condition is not met within the effective timeout.
+     * @throws WaitAbortConditions.WaitAbortedException if an abort condition fires first.
+     */
+    private static <T> T await(By locator, int timeoutSeconds, ExpectedCondition<T> condition,
+                               WaitAbortConditions.Condition... abortOn) {
+        return await(locator.toString(), timeoutSeconds, DEFAULT_POLLING, condition, abortOn);
+    }
+
+    // The adaptive, guarded wait itself; the subject is what AdaptiveTimeouts learns the timeout for
+    private static <T> T await(String subject, int timeoutSeconds, Duration polling, ExpectedCondition<T> condition,
+                               WaitAbortConditions.Condition... abortOn) {
+        WebDriver driver = BaseDriver.getDriver();
+        Duration upperBound = Duration.ofSeconds(timeoutSeconds);
+        Duration timeout = AdaptiveTimeouts.timeoutFor(subject, upperBound);
+        long logSequence = BrowserLogStream.getSequence(driver);
+        long start = System.nanoTime();
+        try {
+            T result = new WebDriverWait(driver, timeout, polling).until(guarded(condition, logSequence, abortOn));
+            AdaptiveTimeouts.record(subject, Duration.ofNanos(System.nanoTime() - start));
+            return result;
+        } catch (WaitAbortConditions.WaitAbortedException e) {
+            throw new WaitAbortConditions.WaitAbortedException("Wait for " + condition + " aborted after "
+                    + Duration.ofNanos(System.nanoTime() - start).toMillis() + " ms on "
+                    + driver.getCurrentUrl() + ": " + e.getMessage());
+        } catch (TimeoutException e) {
+            if (timeout.compareTo(upperBound) < 0) {
+                // Let the learned timeout grow again if the page really got slower
+                AdaptiveTimeouts.expired(subject, timeout);
+                throw new TimeoutException("Adaptive timeout of " + timeout.toMillis() + " ms (limit "
+                        + timeoutSeconds + " s) expired: " + e.getMessage(), e);
+            }
+            throw e;
+        }
+    }
+
+    // Checks the abort conditions only after a failed poll, so waits that succeed at once cost nothing extra
+    private static <T> ExpectedCondition<T> guarded(ExpectedCondition<T> condition, long logSequence,
+                                                    WaitAbortConditions.Condition... abortOn) {
+        return new ExpectedCondition<T>() {
+            @Override
+            public T apply(WebDriver driver) {
+                T value;
+                try {
+                    value = condition.apply(driver);
+                } catch (NotFoundException e) {
+                    WaitAbortConditions.check(driver, logSequence, abortOn);
+                    throw e;
+                }
+                if (value == null || Boolean.FALSE.equals(value)) {
+                    WaitAbortConditions.check(driver, logSequence, abortOn);
+                }
+                return value;
+            }
+
+            @Override
+            public String toString() {
+                return condition.toString();
+            }
+        };
+    }
+
     // ======================
     // ✅ IMPLICIT WAIT (use cautiously)
     // ======================
@@ -0,0 +1,105 @@
+package Selenium_Framework.base;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.By;
+import org.openqa.selenium.UsernameAndPassword;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.testng.Assert.*;
+
+public class StaticPageDriverTest {
+
+    private static final String PAGE = "<html><head><script>function go() {}</script></head><body>"
+            + "<a id='link' href='/next'><span id='inLink'>next</span></a>"
+            + "<a id='scriptLink' href='javascript:go()'>run</a>"
+            + "<button id='handler' onclick='go()'>handler</button>"
+            + "<div id='plain'>plain</div>"
+            + "<form id='scripted' action='/next' onsubmit='go()'><input id='scriptedSubmit' type='submit'></form>"
+            + "<form id='native' action='/next'><input id='nativeSubmit' type='submit'></form>"
+            + "</body></html>";
+    private static final String NEXT = "<html><body><p id='text'>next page</p></body></html>";
+
+    private HttpServer server;
+    private String baseUrl;
+    private StaticPageDriver driver;
+
+    @BeforeClass
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/page", exchange -> respond(exchange, 200, PAGE));
+        server.createContext("/next", exchange -> respond(exchange, 200, NEXT));
+        server.createContext("/secure/area", exchange -> {
+            String expected = "Basic " + Base64.getEncoder()
+                    .encodeToString("admin:admin".getBytes(StandardCharsets.UTF_8));
+            if (expected.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                respond(exchange, 200, NEXT);
+            } else {
+                exchange.getResponseHeaders().add("WWW-Authenticate", "Basic realm=\"secure\"");
+                respond(exchange, 401, "");
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @BeforeMethod
+    public void openPage() {
+        driver = new StaticPageDriver();
+        driver.get(baseUrl + "/page");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void quit() {
+        driver.quit();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Test
+    public void linksAndNativeFormsWorkWithoutJavaScript() {
+        driver.findElement(By.id("inLink")).click();
+        assertEquals(driver.findElement(By.id("text")).getText(), "next page");
+
+        driver.get(baseUrl + "/page");
+        driver.findElement(By.id("nativeSubmit")).click();
+        assertTrue(driver.getCurrentUrl().startsWith(baseUrl + "/next"));
+    }
+
+    @Test
+    public void clicksThatOnlyJavaScriptActsOnFail() {
+        for (String id : new String[]{"scriptLink", "handler", "plain", "scriptedSubmit"}) {
+            assertThrows(UnsupportedOperationException.class, () -> driver.findElement(By.id(id)).click());
+        }
+        assertThrows(UnsupportedOperationException.class, () -> driver.findElement(By.id("scripted")).submit());
+    }
+
+    @Test
+    public void credentialPredicatesSeeTheRequestPath() {
+        driver.register(uri -> uri.getPath().startsWith("/secure"), () -> new UsernameAndPassword("admin", "admin"));
+        driver.get(baseUrl + "/secure/area");
+        assertEquals(driver.findElement(By.id("text")).getText(), "next page");
+    }
+}
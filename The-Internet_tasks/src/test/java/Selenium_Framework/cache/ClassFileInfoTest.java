@@ -0,0 +1,120 @@
+package Selenium_Framework.cache;
+
+import Selenium_Framework.utils.BrowserUtils;
+import Selenium_Framework.utils.WaitUtils;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.testng.Assert.*;
+
+public class ClassFileInfoTest {
+
+    // Compiled with the tests; exercises the instructions and constants the parser has to step over
+    @SuppressWarnings("unused")
+    static class Sample {
+
+        private static final long BIG = 1L << 40;
+        private static final double RATIO = 0.75;
+
+        private final StringBuilder text = new StringBuilder();
+
+        int tableSwitch(int value) {
+            switch (value) {
+                case 1: return helper(1);
+                case 2: return 20;
+                case 3: return 30;
+                default: return -1;
+            }
+        }
+
+        int lookupSwitch(int value) {
+            switch (value) {
+                case 10: return 1;
+                case 1000: return 2;
+                case 100000: return (int) BIG;
+                default: return helper(value);
+            }
+        }
+
+        Object useFramework() {
+            Supplier<String> lambda = () -> text.append(RATIO).toString();
+            return new Object[] {WaitUtils.class, lambda.get(), new int[2][3]};
+        }
+
+        Runnable methodReference() {
+            return BrowserUtils::refreshPage;
+        }
+
+        String literals(int value) {
+            return "id=" + value + ";" + 1234567 + BIG;
+        }
+
+        private int helper(int value) {
+            long wide = value + BIG;
+            return (int) (wide % 7);
+        }
+    }
+
+    private static byte[] bytes(Class<?> type) throws IOException {
+        try (InputStream in = type.getClassLoader().getResourceAsStream(type.getName().replace('.', '/') + ".class")) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    public void readsClassNameAndMethods() throws IOException {
+        ClassFileInfo info = ClassFileInfo.parse(bytes(Sample.class));
+        assertEquals(info.getClassName(), "Selenium_Framework/cache/ClassFileInfoTest$Sample");
+        assertTrue(info.getMethodKeys().containsAll(List.of(
+                "<init>()V", "tableSwitch(I)I", "lookupSwitch(I)I",
+                "useFramework()Ljava/lang/Object;", "helper(I)I", "lambda$useFramework$0()Ljava/lang/String;")),
+                info.getMethodKeys().toString());
+        assertNotNull(info.getCode("helper(I)I"));
+        assertNull(info.getCode("missing()V"));
+    }
+
+    @Test
+    public void findsCallsToOwnMethodsAcrossSwitches() throws IOException {
+        ClassFileInfo info = ClassFileInfo.parse(bytes(Sample.class));
+        // The calls sit behind tableswitch and lookupswitch instructions, so their lengths must be right
+        assertTrue(info.getOwnCalls("tableSwitch(I)I").contains("helper(I)I"));
+        assertTrue(info.getOwnCalls("lookupSwitch(I)I").contains("helper(I)I"));
+        assertTrue(info.getOwnCalls("helper(I)I").isEmpty());
+    }
+
+    @Test
+    public void findsClassesReferencedByInstructions() throws IOException {
+        ClassFileInfo info = ClassFileInfo.parse(bytes(Sample.class));
+        assertTrue(info.getClassRefs("useFramework()Ljava/lang/Object;").contains("Selenium_Framework/utils/WaitUtils"));
+        assertTrue(info.getClassRefs("useFramework()Ljava/lang/Object;").contains("[[I"));
+        assertFalse(info.getClassRefs("helper(I)I").contains("Selenium_Framework/utils/WaitUtils"));
+        assertTrue(info.getClassRefs().contains("java/lang/StringBuilder"));
+    }
+
+    @Test
+    public void followsLambdaBodiesAndMethodReferences() throws IOException {
+        ClassFileInfo info = ClassFileInfo.parse(bytes(Sample.class));
+        assertTrue(info.getOwnCalls("useFramework()Ljava/lang/Object;").contains("lambda$useFramework$0()Ljava/lang/String;"));
+        // The class is only named by the method handle of the invokedynamic call site
+        assertTrue(info.getClassRefs("methodReference()Ljava/lang/Runnable;").contains("Selenium_Framework/utils/BrowserUtils"));
+    }
+
+    @Test
+    public void resolvesTheConstantsInstructionsUse() throws IOException {
+        ClassFileInfo info = ClassFileInfo.parse(bytes(Sample.class));
+        List<String> constants = info.getConstants("literals(I)Ljava/lang/String;");
+        // The concatenation recipe is a bootstrap argument, the constants are folded into it or loaded with ldc
+        assertTrue(constants.stream().anyMatch(c -> c.startsWith("indy ") && c.contains("id=")), constants.toString());
+        assertTrue(info.getConstants("helper(I)I").contains("5:1099511627776"), info.getConstants("helper(I)I").toString());
+        assertTrue(info.getConstants("missing()V").isEmpty());
+    }
+
+    @Test
+    public void rejectsNonClassFiles() {
+        assertThrows(IOException.class, () -> ClassFileInfo.parse(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+}
@@ -0,0 +1,154 @@
+package Selenium_Framework.cache;
+
+import com.sun.net.httpserver.HttpServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import static org.testng.Assert.*;
+
+public class ResultCacheTest {
+
+    private HttpServer server;
+    private volatile String page = "first";
+
+    @SuppressWarnings("unused")
+    static class Fixture {
+
+        public void direct() {
+            System.out.println("same");
+        }
+
+        public void sameCode() {
+            System.out.println("same");
+        }
+
+        public void viaHelperA() {
+            helperA();
+        }
+
+        public void viaHelperB() {
+            helperB();
+        }
+
+        private void helperA() {
+            System.out.println("A");
+        }
+
+        private void helperB() {
+            System.out.println("B");
+        }
+    }
+
+    @BeforeClass
+    public void startFixtureServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = page.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopFixtureServer() {
+        server.stop(0);
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/page";
+    }
+
+    private static Method method(String name) throws NoSuchMethodException {
+        return Fixture.class.getMethod(name);
+    }
+
+    @Test
+    public void fingerprintIsStable() throws Exception {
+        assertEquals(ResultCache.fingerprint(method("direct"), List.of()),
+                ResultCache.fingerprint(method("direct"), List.of()));
+    }
+
+    @Test
+    public void fingerprintCoversTheMethodName() throws Exception {
+        // Identical bytecode under another name is another test
+        assertNotEquals(ResultCache.fingerprint(method("direct"), List.of()),
+                ResultCache.fingerprint(method("sameCode"), List.of()));
+    }
+
+    @Test
+    public void fingerprintFollowsPrivateHelpers() throws Exception {
+        // The test methods differ only in the helper they call; the helpers' code differs too
+        String a = ResultCache.fingerprint(method("viaHelperA"), List.of());
+        String b = ResultCache.fingerprint(method("viaHelperB"), List.of());
+        assertNotEquals(a, b);
+    }
+
+    private static final String PROBE = String.join("\n",
+            "package variant;",
+            "public class Probe {",
+            "    private final String locator = \"#LOCATOR\";",
+            "    public void test() {",
+            "        String expected = \"LITERAL\";",
+            "        java.util.function.Supplier<String> lambda = () -> \"LAMBDA\";",
+            "        String concat = \"pre\" + System.nanoTime() + \"TEMPLATE\";",
+            "        check(locator, expected, lambda.get(), concat);",
+            "    }",
+            "    private void check(Object... values) {",
+            "    }",
+            "}");
+
+    // Compiles the probe with one token replaced and fingerprints its test method
+    private static String probeFingerprint(String token, String replacement) throws Exception {
+        Path directory = Files.createTempDirectory("probe");
+        Path source = Files.createDirectories(directory.resolve("variant")).resolve("Probe.java");
+        Files.writeString(source, PROBE.replace(token, replacement));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(compiler.run(null, null, null, source.toString()), 0);
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {directory.toUri().toURL()},
+                ResultCacheTest.class.getClassLoader())) {
+            return ResultCache.fingerprint(loader.loadClass("variant.Probe").getMethod("test"), List.of());
+        }
+    }
+
+    @Test
+    public void fingerprintChangesWithConstantsThatLeaveTheBytecodeAlone() throws Exception {
+        String original = probeFingerprint("LITERAL", "LITERAL");
+        assertEquals(probeFingerprint("LITERAL", "LITERAL"), original);
+        // Same-length replacements keep every instruction and constant pool index as it was
+        for (Map.Entry<String, String> change : Map.of("LITERAL", "LITERAX", "LOCATOR", "LOCATOX",
+                "LAMBDA", "LAMBDX", "TEMPLATE", "TEMPLATX").entrySet()) {
+            assertNotEquals(probeFingerprint(change.getKey(), change.getValue()), original,
+                    "Changing " + change.getKey() + " must change the fingerprint");
+        }
+    }
+
+    @Test
+    public void fingerprintChangesWithTheFixturePage() throws Exception {
+        page = "first";
+        String first = ResultCache.fingerprint(method("direct"), List.of(url()));
+        assertEquals(ResultCache.fingerprint(method("direct"), List.of(url())), first);
+        assertNotEquals(first, ResultCache.fingerprint(method("direct"), List.of()));
+
+        page = "second";
+        assertNotEquals(ResultCache.fingerprint(method("direct"), List.of(url())), first);
+    }
+}
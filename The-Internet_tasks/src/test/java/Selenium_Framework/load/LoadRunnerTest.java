@@ -0,0 +1,28 @@
+package Selenium_Framework.load;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+public class LoadRunnerTest {
+
+    @Test
+    public void localTargetsAreAccepted() {
+        LoadRunner.requireLocalTarget("http://localhost:7080");
+        LoadRunner.requireLocalTarget("http://127.0.0.1:7080");
+        LoadRunner.requireLocalTarget("http://[::1]:7080");
+        LoadRunner.requireLocalTarget("http://10.1.2.3");
+        LoadRunner.requireLocalTarget("http://192.168.0.10:8080");
+        LoadRunner.requireLocalTarget("http://[fd12:3456::1]:7080");
+        LoadRunner.requireLocalTarget("http://[fc00::1]");
+    }
+
+    @Test
+    public void publicTargetsAreRejected() {
+        assertThrows(IllegalStateException.class, () -> LoadRunner.requireLocalTarget("http://8.8.8.8"));
+        assertThrows(IllegalStateException.class, () -> LoadRunner.requireLocalTarget("http://[2001:db8::1]"));
+        assertThrows(IllegalStateException.class, () -> LoadRunner.requireLocalTarget("http://[fe00::1]"));
+        assertThrows(IllegalStateException.class, () -> LoadRunner.requireLocalTarget(null));
+        assertThrows(IllegalStateException.class, () -> LoadRunner.requireLocalTarget(" "));
+    }
+}
@@ -0,0 +1,75 @@
+package Selenium_Framework.load;
+
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class StepStatsTest {
+
+    @Test
+    public void emptyStepReportsZeros() {
+        StepStats stats = new StepStats("step");
+        assertEquals(stats.getCount(), 0);
+        assertEquals(stats.getErrorRate(), 0.0);
+        assertEquals(stats.getPercentile(99), 0);
+    }
+
+    @Test
+    public void percentilesUseNearestRank() {
+        StepStats stats = new StepStats("step");
+        // Recorded out of order on purpose
+        for (long latency : new long[] {70, 10, 100, 40, 20, 90, 30, 60, 50, 80}) {
+            stats.record(latency, null);
+        }
+        assertEquals(stats.getPercentile(0), 10);
+        assertEquals(stats.getPercentile(50), 50);
+        assertEquals(stats.getPercentile(90), 90);
+        assertEquals(stats.getPercentile(95), 100);
+        assertEquals(stats.getPercentile(100), 100);
+    }
+
+    @Test
+    public void singleSampleIsEveryPercentile() {
+        StepStats stats = new StepStats("step");
+        stats.record(42, null);
+        assertEquals(stats.getPercentile(1), 42);
+        assertEquals(stats.getPercentile(99), 42);
+    }
+
+    @Test
+    public void errorsAreCountedAndTheLastOneIsReported() {
+        StepStats stats = new StepStats("step");
+        stats.record(10, null);
+        stats.record(20, new IllegalStateException("first"));
+        stats.record(30, new AssertionError("second"));
+        stats.record(40, null);
+        assertEquals(stats.getErrors(), 2);
+        assertEquals(stats.getErrorRate(), 0.5);
+
+        Map<String, Object> json = stats.toJson(2.0);
+        assertEquals(json.get("count"), 4);
+        assertEquals(json.get("throughputPerSecond"), 2.0);
+        assertEquals(json.get("maxMillis"), 40L);
+        assertEquals(json.get("lastError"), "AssertionError: second");
+    }
+
+    @Test
+    public void concurrentRecordsAreNotLost() throws InterruptedException {
+        StepStats stats = new StepStats("step");
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    stats.record(i, null);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(stats.getCount(), 8000);
+    }
+}
@@ -0,0 +1,53 @@
+package Selenium_Framework.logging;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+public class DroppingQueueTest {
+
+    @Test
+    public void elementsBeyondCapacityAreDroppedAndCounted() throws InterruptedException {
+        DroppingQueue<Integer> queue = new DroppingQueue<>(2);
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertFalse(queue.offer(3));
+        assertFalse(queue.offer(4));
+
+        List<Integer> batch = new ArrayList<>();
+        queue.takeAll(batch);
+        assertEquals(batch, List.of(1, 2));
+        assertEquals(queue.takeDropped(), 2);
+        assertEquals(queue.takeDropped(), 0);
+    }
+
+    @Test
+    public void timedOfferIsNotCountedAsDropped() throws InterruptedException {
+        DroppingQueue<Integer> queue = new DroppingQueue<>(1);
+        assertTrue(queue.offer(1, 10, TimeUnit.MILLISECONDS));
+        assertFalse(queue.offer(2, 10, TimeUnit.MILLISECONDS));
+        assertEquals(queue.takeDropped(), 0);
+    }
+
+    @Test
+    public void takeAllWaitsForTheFirstElement() throws InterruptedException {
+        DroppingQueue<String> queue = new DroppingQueue<>(4);
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.offer("late");
+        });
+        producer.start();
+        List<String> batch = new ArrayList<>();
+        queue.takeAll(batch);
+        assertEquals(batch, List.of("late"));
+        producer.join();
+    }
+}
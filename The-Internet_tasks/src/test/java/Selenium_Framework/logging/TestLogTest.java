@@ -0,0 +1,69 @@
+package Selenium_Framework.logging;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+public class TestLogTest {
+
+    private static Path logFile(String testName) {
+        return Paths.get(System.getProperty("log.dir", "target/test-logs"))
+                .resolve(testName.replaceAll("[^A-Za-z0-9._-]", "_") + ".log");
+    }
+
+    @Test
+    public void linesAreWrittenToTheTestsOwnFileInOrder() throws IOException {
+        String test = "TestLogTest.ownFile." + System.nanoTime();
+        TestLog.startTest(test);
+        TestLog.info("first");
+        TestLog.warn("second");
+        TestLog.endTest();
+
+        List<String> lines = Files.readAllLines(logFile(test), StandardCharsets.UTF_8);
+        assertEquals(lines.size(), 2, lines.toString());
+        assertTrue(lines.get(0).contains("INFO") && lines.get(0).endsWith("[" + test + "] [-] first"), lines.get(0));
+        assertTrue(lines.get(1).contains("WARN") && lines.get(1).endsWith("second"), lines.get(1));
+    }
+
+    @Test
+    public void fileNamesAreSanitizedAndRerunsAppend() throws IOException {
+        String test = "TestLogTest.rerun[param 1]/" + System.nanoTime();
+        assertFalse(logFile(test).getFileName().toString().contains("/"));
+        TestLog.startTest(test);
+        TestLog.info("run 1");
+        TestLog.endTest();
+        TestLog.startTest(test);
+        TestLog.info("run 2");
+        TestLog.endTest();
+
+        List<String> lines = Files.readAllLines(logFile(test), StandardCharsets.UTF_8);
+        assertEquals(lines.size(), 2, lines.toString());
+        assertTrue(lines.get(1).endsWith("run 2"), lines.get(1));
+    }
+
+    @Test
+    public void otherThreadsDoNotLeakIntoTheTestsFile() throws Exception {
+        String test = "TestLogTest.threads." + System.nanoTime();
+        String other = test + ".other";
+        TestLog.startTest(test);
+        Thread thread = new Thread(() -> {
+            TestLog.startTest(other);
+            TestLog.info("from the other thread");
+            TestLog.endTest();
+        });
+        thread.start();
+        thread.join();
+        TestLog.info("from this thread");
+        TestLog.endTest();
+
+        assertEquals(Files.readAllLines(logFile(test), StandardCharsets.UTF_8).size(), 1);
+        assertEquals(Files.readAllLines(logFile(other), StandardCharsets.UTF_8).size(), 1);
+    }
+}
@@ -0,0 +1,157 @@
+package Selenium_Framework.report;
+
+import org.openqa.selenium.json.Json;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.*;
+
+public class IncrementalAllureReportTest {
+
+    private Path input;
+    private Path store;
+    private Path index;
+
+    @BeforeMethod
+    public void createDirectories() throws IOException {
+        Path root = Files.createTempDirectory("allure");
+        input = Files.createDirectories(root.resolve("allure-results"));
+        store = root.resolve("store");
+        index = root.resolve("index.json");
+    }
+
+    private IncrementalAllureReport report(int keepPerTest, int maxAgeDays) {
+        return new IncrementalAllureReport(input, store, index, keepPerTest, maxAgeDays);
+    }
+
+    private void result(String uuid, String historyId, long stop, String... attachments) throws IOException {
+        List<Map<String, Object>> sources = Stream.of(attachments)
+                .map(source -> Map.<String, Object>of("name", "log", "source", source))
+                .collect(Collectors.toList());
+        Map<String, Object> json = Map.of("uuid", uuid, "historyId", historyId, "stop", stop, "status", "passed",
+                "steps", List.of(Map.of("name", "step", "attachments", sources)));
+        Files.writeString(input.resolve(uuid + "-result.json"), new Json().toJson(json));
+    }
+
+    private void container(String uuid, String... children) throws IOException {
+        Map<String, Object> json = Map.of("uuid", uuid, "children", List.of(children));
+        Files.writeString(input.resolve(uuid + "-container.json"), new Json().toJson(json));
+    }
+
+    private Map<String, Object> stored(String uuid) throws IOException {
+        return new Json().toType(Files.readString(store.resolve(uuid + "-result.json")), Json.MAP_TYPE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String firstSource(Map<String, Object> result) {
+        Map<String, Object> step = ((List<Map<String, Object>>) result.get("steps")).get(0);
+        return (String) ((List<Map<String, Object>>) step.get("attachments")).get(0).get("source");
+    }
+
+    private List<String> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void identicalAttachmentsAreStoredOnceUnderTheirHash() throws IOException {
+        Files.writeString(input.resolve("a-attachment.txt"), "same");
+        Files.writeString(input.resolve("b-attachment.txt"), "same");
+        result("r1", "test1", 1000, "a-attachment.txt");
+        result("r2", "test2", 1000, "b-attachment.txt");
+
+        String summary = report(10, 0).update(false);
+
+        assertTrue(summary.startsWith("merged 2 results"), summary);
+        assertTrue(summary.contains("stored 1 attachments (1 duplicates"), summary);
+        String source = firstSource(stored("r1"));
+        assertTrue(source.matches("[0-9a-f]{64}\\.txt"), source);
+        assertEquals(firstSource(stored("r2")), source);
+        assertEquals(Files.readString(store.resolve(source)), "same");
+    }
+
+    @Test
+    public void unchangedInputIsNotMergedAgain() throws IOException {
+        result("r1", "test1", 1000);
+        report(10, 0).update(false);
+
+        String summary = report(10, 0).update(false);
+
+        assertTrue(summary.startsWith("merged 0 results and 0 containers"), summary);
+        assertTrue(summary.endsWith("store holds 1 results"), summary);
+    }
+
+    @Test
+    public void retentionKeepsTheNewestResultsAndCollectsWhatTheOldOnesLeft() throws IOException {
+        Files.writeString(input.resolve("old-attachment.txt"), "old");
+        Files.writeString(input.resolve("new-attachment.txt"), "new");
+        result("old", "test1", 1000, "old-attachment.txt");
+        result("newer", "test1", 2000);
+        result("newest", "test1", 3000, "new-attachment.txt");
+        container("c-old", "old");
+        container("c-new", "newest");
+        container("c-outer", "c-old");
+
+        String summary = report(2, 0).update(false);
+
+        assertTrue(summary.contains("dropped 1 old results and 3 unreferenced files"), summary);
+        List<String> files = files(store);
+        assertTrue(files.containsAll(List.of("newer-result.json", "newest-result.json", "c-new-container.json")), files.toString());
+        assertFalse(files.contains("old-result.json"));
+        assertFalse(files.contains("c-old-container.json"));
+        assertFalse(files.contains("c-outer-container.json"));
+        assertTrue(files.contains(firstSource(stored("newest"))));
+        assertEquals(files.stream().filter(name -> name.endsWith(".txt")).count(), 1);
+    }
+
+    @Test
+    public void resultsPastTheMaximumAgeAreDropped() throws IOException {
+        long now = System.currentTimeMillis();
+        result("recent", "test1", now);
+        result("ancient", "test2", now - 3L * 24 * 60 * 60 * 1000);
+
+        String summary = report(10, 2).update(false);
+
+        assertTrue(summary.contains("dropped 1 old results"), summary);
+        assertTrue(Files.exists(store.resolve("recent-result.json")));
+        assertFalse(Files.exists(store.resolve("ancient-result.json")));
+    }
+
+    @Test
+    public void compactionOnlyDeletesMergedFilesAndTheirAttachments() throws IOException {
+        Files.writeString(input.resolve("merged-attachment.txt"), "merged");
+        Files.writeString(input.resolve("running-attachment.txt"), "still being written to");
+        Files.writeString(input.resolve("environment.properties"), "browser=chrome");
+        Files.writeString(input.resolve("running-result.json"), "{\"uuid\": \"running\", \"steps\": [");
+        result("r1", "test1", 1000, "merged-attachment.txt");
+
+        String summary = report(10, 0).update(true);
+
+        assertTrue(summary.contains("compacted 2 input files"), summary);
+        assertEquals(files(input), List.of("environment.properties", "running-attachment.txt", "running-result.json"));
+        assertTrue(Files.exists(store.resolve("environment.properties")));
+    }
+
+    @Test
+    public void compactionAlsoDeletesAttachmentsOfResultsMergedEarlier() throws IOException {
+        Files.writeString(input.resolve("a-attachment.txt"), "a");
+        result("r1", "test1", 1000, "a-attachment.txt");
+        report(10, 0).update(false);
+        Files.writeString(input.resolve("unrelated.txt"), "unrelated");
+
+        String summary = report(10, 0).update(true);
+
+        assertTrue(summary.contains("compacted 2 input files"), summary);
+        assertEquals(files(input), List.of("unrelated.txt"));
+        assertTrue(Files.exists(store.resolve(firstSource(stored("r1")))));
+    }
+}
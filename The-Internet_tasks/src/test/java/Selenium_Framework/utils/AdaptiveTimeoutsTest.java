@@ -0,0 +1,63 @@
+package Selenium_Framework.utils;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+
+import static org.testng.Assert.*;
+
+public class AdaptiveTimeoutsTest {
+
+    private static final Duration LIMIT = Duration.ofSeconds(30);
+    private static final String SUBJECT = "By.id: message";
+
+    @BeforeMethod
+    @AfterMethod
+    public void reset() {
+        AdaptiveTimeouts.reset();
+        AdaptiveTimeouts.setCurrentPage("http://site/page");
+    }
+
+    private static void record(int times, long millis) {
+        for (int i = 0; i < times; i++) {
+            AdaptiveTimeouts.record(SUBJECT, Duration.ofMillis(millis));
+        }
+    }
+
+    @Test
+    public void theCallersTimeoutIsUsedUntilThereAreEnoughSamples() {
+        record(4, 300);
+        assertEquals(AdaptiveTimeouts.timeoutFor(SUBJECT, LIMIT), LIMIT);
+        record(1, 300);
+        // 300 ms * 1.5 + 500 ms, raised to the 1 s minimum
+        assertEquals(AdaptiveTimeouts.timeoutFor(SUBJECT, LIMIT), Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void samplesAreKeptPerPage() {
+        record(5, 2000);
+        AdaptiveTimeouts.setCurrentPage("http://site/other?query=1");
+        assertEquals(AdaptiveTimeouts.timeoutFor(SUBJECT, LIMIT), LIMIT);
+    }
+
+    @Test
+    public void theLearnedTimeoutNeverExceedsTheCallersTimeout() {
+        record(5, 60_000);
+        assertEquals(AdaptiveTimeouts.timeoutFor(SUBJECT, LIMIT), LIMIT);
+    }
+
+    @Test
+    public void anExpiredTimeoutRaisesTheLearnedOne() {
+        record(100, 300);
+        Duration learned = AdaptiveTimeouts.timeoutFor(SUBJECT, LIMIT);
+        assertEquals(learned, Duration.ofSeconds(1));
+
+        AdaptiveTimeouts.expired(SUBJECT, learned);
+        assertEquals(AdaptiveTimeouts.timeoutFor(SUBJECT, LIMIT), LIMIT);
+        // Even when the page is fast again, the expired timeout is part of the new history
+        record(4, 300);
+        assertTrue(AdaptiveTimeouts.timeoutFor(SUBJECT, LIMIT).compareTo(learned) > 0);
+    }
+}
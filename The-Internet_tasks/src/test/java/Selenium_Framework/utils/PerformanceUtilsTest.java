@@ -0,0 +1,90 @@
+package Selenium_Framework.utils;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+public class PerformanceUtilsTest {
+
+    @BeforeMethod
+    @AfterMethod
+    public void reset() {
+        PerformanceUtils.reset();
+    }
+
+    private static PerformanceUtils.PageTiming timing(String profile, String url, double load) {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("load", load);
+        raw.put("ttfb", 10L);
+        raw.put("resources", List.of());
+        return new PerformanceUtils.PageTiming(url, profile, raw);
+    }
+
+    @Test
+    public void samplesAreAggregatedPerProfileAndUrl() {
+        PerformanceUtils.record(timing("none", "http://site/a", 100));
+        PerformanceUtils.record(timing("none", "http://site/a", 300));
+        PerformanceUtils.record(timing("3g", "http://site/a", 900));
+        PerformanceUtils.record(timing("none", "http://site/b", 50));
+
+        Map<String, PerformanceUtils.TimingSummary> summaries = PerformanceUtils.summarize();
+        assertEquals(List.copyOf(summaries.keySet()), List.of("none http://site/a", "3g http://site/a", "none http://site/b"));
+
+        PerformanceUtils.TimingSummary a = summaries.get("none http://site/a");
+        assertEquals(a.getProfile(), "none");
+        assertEquals(a.getUrl(), "http://site/a");
+        assertEquals(a.getSamples(), 2);
+        assertEquals(a.mean("load"), 200.0);
+        assertEquals(a.max("load"), 300.0);
+        assertEquals(summaries.get("3g http://site/a").mean("load"), 900.0);
+    }
+
+    @Test
+    public void percentilesUseNearestRank() {
+        for (int i = 1; i <= 20; i++) {
+            PerformanceUtils.record(timing("none", "http://site/a", i * 10));
+        }
+        PerformanceUtils.TimingSummary summary = PerformanceUtils.summarize().get("none http://site/a");
+        assertEquals(summary.percentile("load", 50), 100.0);
+        assertEquals(summary.percentile("load", 95), 190.0);
+        assertEquals(summary.percentile("load", 100), 200.0);
+        assertEquals(summary.percentile("load", 0), 10.0);
+    }
+
+    @Test
+    public void missingMetricsAreNaNAndExportedEmpty() throws IOException {
+        PerformanceUtils.record(timing("none", "http://site/\"quoted\"", 100));
+        PerformanceUtils.TimingSummary summary = PerformanceUtils.summarize().values().iterator().next();
+        assertTrue(Double.isNaN(summary.mean("firstPaint")));
+        assertTrue(Double.isNaN(summary.percentile("firstPaint", 95)));
+
+        Path directory = Files.createTempDirectory("timings");
+        PerformanceUtils.exportResults(directory);
+        List<String> csv = Files.readAllLines(directory.resolve("page-timings.csv"), StandardCharsets.UTF_8);
+        assertEquals(csv.size(), 2);
+        assertTrue(csv.get(0).startsWith("profile,url,samples,dns_mean,dns_p50,dns_p95,dns_max,"));
+        String[] header = csv.get(0).split(",");
+        assertEquals(header.length, 3 + 4 * PerformanceUtils.METRICS.size());
+        // The URL is quoted with doubled inner quotes; empty cells stand for the missing dns and connect
+        assertTrue(csv.get(1).startsWith("none,\"http://site/\"\"quoted\"\"\",1,,,,,,,,,10.0,10.0,10.0,10.0,"), csv.get(1));
+        String json = Files.readString(directory.resolve("page-timings.json"));
+        assertTrue(json.contains("\"profile\": \"none\""), json);
+    }
+
+    @Test
+    public void exportWithoutSamplesWritesNothing() throws IOException {
+        Path directory = Files.createTempDirectory("timings");
+        PerformanceUtils.exportResults(directory);
+        assertFalse(Files.exists(directory.resolve("page-timings.csv")));
+    }
+}
@@ -2,22 +2,40 @@ package tests;
 
 
 import Selenium_Framework.base.BaseDriver;
+import Selenium_Framework.base.BrowserLogStream;
+import Selenium_Framework.base.ScreencastRecorder;
+import Selenium_Framework.base.SessionGovernor;
+import Selenium_Framework.cache.ResultCache;
+import Selenium_Framework.logging.TestLog;
+import Selenium_Framework.pipeline.NavigationPipeline;
+import Selenium_Framework.pipeline.TargetUrl;
 import Selenium_Framework.utils.*;
 import org.openqa.selenium.By;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.support.ui.ExpectedConditions;
 import io.qameta.allure.*;
 import java.awt.AWTException;
+import org.testng.IHookCallBack;
+import org.testng.IHookable;
 import org.testng.ITestResult;
 import org.testng.annotations.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import org.testng.Assert;
 
 import static org.testng.Assert.*;
 import org.testng.asserts.SoftAssert;
 
-public class HerokuAppTests {
+@Listeners(ScheduleRecorder.class)
+public class HerokuAppTests implements IHookable {
+    
+    // Target of the suite; point it at a local deployment with -DbaseUrl=http://localhost:7080
+    static final String BASE_URL = System.getProperty("baseUrl", "https://the-internet.herokuapp.com");
     
     By TC1_textLocator = By.id("content"); 
     By TC2_AddLocator = By.cssSelector("button[onclick='addElement()']");
@@ -56,66 +74,154 @@ public class HerokuAppTests {
 
     
     
+    @BeforeSuite
+    public void setUpSuite() {
+        TestLog.info("Reaped " + SessionGovernor.reapOrphans() + " orphaned driver processes");
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void tearDownSuite() throws IOException {
+        AdaptiveTimeouts.save();
+        TestLog.info("Reaped " + SessionGovernor.reapOrphans() + " orphaned driver processes");
+    }
+
     @BeforeClass
     public void setUpClass() {
-        System.out.println("The test class is initialized");
+        TestLog.info("The test class is initialized");
     }
 
-    @AfterClass
-    public void tearDownClass() {
-        System.out.println("The test class is ended");
+    @AfterClass(alwaysRun = true)
+    public void tearDownClass() throws IOException {
+        // Sessions kept by the navigation pipeline end with the class
+        BaseDriver.quitDriver();
+        PerformanceUtils.exportResults(Paths.get("target", "performance"));
+        TestLog.info("The test class is ended");
     }
 
     @BeforeMethod
-    public void setUpMethod() throws Exception {
-        BaseDriver.initializeDriver("chrome");
-        System.out.println("the method is started");
+    public void setUpMethod(Method method) throws Exception {
+        TestLog.startTest(method.getDeclaringClass().getSimpleName() + "." + method.getName());
+        // Unchanged tests that passed before against the same fixture pages don't need a browser
+        if (ResultCache.beginTest(method, browserFor(method), BASE_URL)) {
+            TestLog.info("the method reuses its cached result");
+            return;
+        }
+        // A session kept from the previous test is reused if it runs the same browser
+        BaseDriver.initializeDriver(browserFor(method));
+        // Memory and lifetime limits apply per test, also in a kept session
+        SessionGovernor.beginTest(BaseDriver.getDriver());
+        TestLog.info("the method is started");
+    }
+
+    // Tests in the "static" group need no JavaScript and run on the HTTP-only driver
+    private static String browserFor(Method method) {
+        boolean isStatic = Arrays.asList(method.getAnnotation(Test.class).groups()).contains("static");
+        return isStatic ? System.getProperty("static.browser", "http") : "chrome";
+    }
+
+    @Override
+    public void run(IHookCallBack callBack, ITestResult testResult) {
+        if (ResultCache.isReused()) {
+            Allure.description("Skipped execution: reused the cached passing result (run with -Dcache.force=true to re-run)");
+            return;
+        }
+        try {
+            callBack.runTestMethod(testResult);
+            if (NavigationPipeline.isEnabled() && testResult.getThrowable() == null) {
+                preloadNextTest(testResult.getMethod().getConstructorOrMethod().getMethod());
+            }
+        } finally {
+            // The Allure test case is still open here, unlike in @AfterMethod
+            TestLog.attachToAllure();
+        }
+    }
+
+    // Starts loading the next test's first page in this session while this test tears down
+    private static void preloadNextTest(Method current) {
+        NavigationPipeline.next(current)
+                .filter(next -> browserFor(next).equals(browserFor(current)))
+                .map(next -> next.getAnnotation(TargetUrl.class))
+                .ifPresent(target -> NavigationPipeline.preload(BaseDriver.getDriver(), BASE_URL + target.value()));
     }
 
     @AfterMethod
     public void tearDownMethod(ITestResult result) throws Exception {
-        // Attach screenshot on failure
-        if (result.getStatus() == ITestResult.FAILURE) {
-            byte[] screenshot = ((TakesScreenshot) BaseDriver.getDriver()).getScreenshotAs(OutputType.BYTES);
-            Allure.addAttachment("Failure Screenshot", new ByteArrayInputStream(screenshot));
+        if (ResultCache.isReused()) {
+            TestLog.endTest();
+            return;
         }
-        BaseDriver.quitDriver();
-        System.out.println("the method is finished");
+        try {
+            // Attach screenshot on failure
+            if (result.getStatus() == ITestResult.FAILURE) {
+                // Console and network events are already buffered locally; no extra round trips
+                BrowserLogStream.attachToAllure(BaseDriver.getDriver());
+                ScreencastRecorder.attachToAllure(BaseDriver.getDriver());
+                if (BaseDriver.getDriver() instanceof TakesScreenshot) {
+                    byte[] screenshot = ((TakesScreenshot) BaseDriver.getDriver()).getScreenshotAs(OutputType.BYTES);
+                    Allure.addAttachment("Failure Screenshot", new ByteArrayInputStream(screenshot));
+                }
+            } else {
+                BrowserLogStream.clear(BaseDriver.getDriver());
+                ScreencastRecorder.discard(BaseDriver.getDriver());
+            }
+            long peakRss = SessionGovernor.getPeakRssBytes(BaseDriver.getDriver());
+            if (peakRss >= 0) {
+                Allure.addAttachment("Peak browser memory", peakRss / (1024 * 1024) + " MB");
+            }
+        } finally {
+            // Always quit, otherwise the browser and driver processes leak; the navigation
+            // pipeline keeps passing sessions for the next test and quits them with the class
+            if (!NavigationPipeline.isEnabled() || result.getStatus() != ITestResult.SUCCESS) {
+                BaseDriver.quitDriver();
+            }
+        }
+        Method testMethod = result.getMethod().getConstructorOrMethod().getMethod();
+        if (result.getStatus() == ITestResult.SUCCESS) {
+            ResultCache.recordPass(testMethod);
+        } else {
+            ResultCache.invalidate(testMethod);
+        }
+        TestLog.info("the method is finished");
+        TestLog.endTest();
         }
 
-    @Test
+    @Test(groups = "static")
+    @TargetUrl("/abtest")
     public void TC1_AB_Test_Control() {
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/abtest");
+        BrowserUtils.navigateToURL(BASE_URL + "/abtest");
         String pageText = ElementUtils.getText(TC1_textLocator);
-        System.out.println("The content of page1:\n" + pageText);
+        TestLog.info("The content of page1:\n" + pageText);
         Assert.assertTrue(pageText.contains("Test"), 
                 "Page text does not contain expected string 'Test Control'. Actual text: " + pageText);
     }
 
     @Test
+    @TargetUrl("/add_remove_elements/")
     public void TC2_Add_Remove_Elements() {
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/add_remove_elements/");
+        BrowserUtils.navigateToURL(BASE_URL + "/add_remove_elements/");
         ElementUtils.click(TC2_AddLocator);
-        System.out.println("The element is added successfully");
+        TestLog.info("The element is added successfully");
         ElementUtils.click(TC2_RemoveLocator);
-        System.out.println("The element is removed successfully");
+        TestLog.info("The element is removed successfully");
     }
 
     
     @Test
     public void TC3_BasicAuth() throws AWTException {
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/basic_auth");
+        BrowserUtils.navigateToURL(BASE_URL + "/basic_auth");
         KeyboardUtils.basicAuthUsingRobot("admin", "admin");
+        WaitUtils.waitForNetworkIdle(300, 10, ExpectedConditions.presenceOfElementLocated(TC3_successAuth));
         // Verify page content
         String pageText = ElementUtils.getText(TC3_successAuth);
-        System.out.println("Page content: " + pageText);
+        TestLog.info("Page content: " + pageText);
         assertTrue(pageText.contains("Congratulations!"));
     }
 
 /*   
     @Test
+    @TargetUrl("/broken_images")
     public void TC4_brokenImages() throws IOException {
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/broken_images");
+        BrowserUtils.navigateToURL(BASE_URL + "/broken_images");
 
         List<WebElement> images = ElementUtils.getElements(TC4_BrokenImagesLocator);
         boolean brokenFound = false;
@@ -130,9 +236,9 @@ public class HerokuAppTests {
         int responseCode = connection.getResponseCode();
         if (responseCode >= 400) {
             brokenFound = true;
-            System.out.println("Broken image: " + src);
+            TestLog.info("Broken image: " + src);
         } else {
-            System.out.println("Valid image: " + src);
+            TestLog.info("Valid image: " + src);
            }
 
            connection.disconnect(); // always disconnect
@@ -142,168 +248,185 @@ public class HerokuAppTests {
 */
     
     @Test
+    @TargetUrl("/challenging_dom")
     public void TC5_ChallengingDOM() {
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/challenging_dom");
+        BrowserUtils.navigateToURL(BASE_URL + "/challenging_dom");
         for (int row = 1; row <= 10; row++) {
             for (int col = 1; col <= 6; col++) {
                String TC5_ElementLocators = String.format("//*[@id='content']/div/div/div/div[2]/table/tbody/tr[%d]/td[%d]", row, col);
                String cellText = ElementUtils.getText(By.xpath(TC5_ElementLocators));
-               System.out.println("Row " + row + " Col " + col + ": " + cellText);
+               TestLog.info("Row " + row + " Col " + col + ": " + cellText);
            }
        }
     } 
 
     
     @Test
+    @TargetUrl("/checkboxes")
     public void TC6_checkedBoxes() {
-       BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/checkboxes");
+       BrowserUtils.navigateToURL(BASE_URL + "/checkboxes");
 
        ElementUtils.checkCheckbox(TC6_firstBoxLocator);
-       System.out.println("The first checkbox is checked now");
+       TestLog.info("The first checkbox is checked now");
 
        ElementUtils.uncheckCheckbox(TC6_secondBoxLocator);
-       System.out.println("The second checkbox is unchecked now");
+       TestLog.info("The second checkbox is unchecked now");
     }
     
     @Test
+    @TargetUrl("/context_menu")
     public void TC7_contextMneu() {
        String expectedText = "You selected a context menu";
-       BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/context_menu");
+       BrowserUtils.navigateToURL(BASE_URL + "/context_menu");
 
        ActionsUtils.rightClick(TC7_contextMneuLocator);
-       WaitUtils.setImplicitWait(2);
+       WaitUtils.waitForAlert(10);
        String alerttext = AlertUtils.getAlertText();
-            System.out.println("the alert text is : " + alerttext);
+            TestLog.info("the alert text is : " + alerttext);
        AlertUtils.acceptAlert();
        assertTrue(alerttext.contains(expectedText));
     }
     
-    @Test
+    @Test(groups = "static")
+    @TargetUrl("/disappearing_elements")
     public void TC8_DisappearingElements()
     {   
-        String ExpectedHomeLink = "https://the-internet.herokuapp.com/";
-        String ExpectedAboutLink = "https://the-internet.herokuapp.com/about/";
-        String ExpectedContactUsLink = "https://the-internet.herokuapp.com/contact-us/";
-        String ExpectedPortfolioLink = "https://the-internet.herokuapp.com/portfolio/";
+        String ExpectedHomeLink = BASE_URL + "/";
+        String ExpectedAboutLink = BASE_URL + "/about/";
+        String ExpectedContactUsLink = BASE_URL + "/contact-us/";
+        String ExpectedPortfolioLink = BASE_URL + "/portfolio/";
                 
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/disappearing_elements");
+        BrowserUtils.navigateToURL(BASE_URL + "/disappearing_elements");
         ElementUtils.click(TC8_HomeLocator);
         assertEquals(BrowserUtils.GetCurrentLink() , ExpectedHomeLink);
-        System.out.println("HOME IS DONE");
+        TestLog.info("HOME IS DONE");
         
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/disappearing_elements");
+        BrowserUtils.navigateToURL(BASE_URL + "/disappearing_elements");
         ElementUtils.click(TC8_AboutLocator);
         assertEquals(BrowserUtils.GetCurrentLink() , ExpectedAboutLink);
-        System.out.println("ABOUT IS DONE");
+        TestLog.info("ABOUT IS DONE");
         
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/disappearing_elements");
+        BrowserUtils.navigateToURL(BASE_URL + "/disappearing_elements");
         ElementUtils.click(TC8_ContactUsLocator);
         assertEquals(BrowserUtils.GetCurrentLink() , ExpectedContactUsLink);
-        System.out.println("CONTACT IS DONE");
+        TestLog.info("CONTACT IS DONE");
         
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/disappearing_elements");
+        BrowserUtils.navigateToURL(BASE_URL + "/disappearing_elements");
         ElementUtils.click(TC8_PortfolioLocator);
         assertEquals(BrowserUtils.GetCurrentLink() , ExpectedPortfolioLink);        
-        System.out.println("PORTFOLIO IS DONE");
+        TestLog.info("PORTFOLIO IS DONE");
     }
     
     @Test
+    @TargetUrl("/drag_and_drop")
     public void TC9_DragAndDrop() {
-       BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/drag_and_drop");
+       BrowserUtils.navigateToURL(BASE_URL + "/drag_and_drop");
        ActionsUtils.dragAndDrop(TC9_srcALocator, TC9_destBLocator);  
     }
     
     @Test
+    @TargetUrl("/dropdown")
     public void TC10_DropDown() {
-       BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/dropdown");
+       BrowserUtils.navigateToURL(BASE_URL + "/dropdown");
        ElementUtils.selectDropdownByIndex(TC10_DropDownLocator, 2);
-        System.out.println("Option 1 is selected");
+        TestLog.info("Option 1 is selected");
     }
     
-    @Test
+    @Test(groups = "static")
+    @TargetUrl("/dynamic_content")
     public void TC11_DynamicContent()
     {
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/dynamic_content");
-        System.out.println("the content 1 : " + ElementUtils.getText(TC11_DynamicText1));
-        System.out.println("the content 2 : " + ElementUtils.getText(TC11_DynamicText2));
-        System.out.println("the content 3 : " + ElementUtils.getText(TC11_DynamicText3));    
+        BrowserUtils.navigateToURL(BASE_URL + "/dynamic_content");
+        TestLog.info("the content 1 : " + ElementUtils.getText(TC11_DynamicText1));
+        TestLog.info("the content 2 : " + ElementUtils.getText(TC11_DynamicText2));
+        TestLog.info("the content 3 : " + ElementUtils.getText(TC11_DynamicText3));    
     }
     
     
-    @Test
+    @Test(groups = "perf")
+    @TargetUrl("/dynamic_controls")
     public void TC12_dynamicAddAndRemove() {
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/dynamic_controls");
+        BrowserUtils.navigateToURL(BASE_URL + "/dynamic_controls");
 
         ElementUtils.click(TC12_REMOVE_BUTTON);
 
-        String removeMsg = WaitUtils.waitForVisibility(TC12_MESSAGE, 5).getText();
-        System.out.println("Remove Message: " + removeMsg);
+        WaitUtils.waitForNetworkIdle(300, 5, ExpectedConditions.visibilityOfElementLocated(TC12_MESSAGE));
+        String removeMsg = ElementUtils.getText(TC12_MESSAGE);
+        TestLog.info("Remove Message: " + removeMsg);
         assertTrue(removeMsg.contains("It's gone!"),
                 "Expected 'It's gone!' but got: " + removeMsg);
 
         ElementUtils.click(TC12_ADD_BUTTON);
 
-        String addMsg = WaitUtils.waitForVisibility(TC12_MESSAGE, 5).getText();
-        System.out.println("Add Message: " + addMsg);
+        WaitUtils.waitForNetworkIdle(300, 5, ExpectedConditions.visibilityOfElementLocated(TC12_MESSAGE));
+        String addMsg = ElementUtils.getText(TC12_MESSAGE);
+        TestLog.info("Add Message: " + addMsg);
         assertTrue(addMsg.contains("It's back!"),
                 "Expected 'It's back!' but got: " + addMsg);
     }
     
-    @Test
+    @Test(groups = "perf")
+    @TargetUrl("/dynamic_controls")
     public void TC13_DynamicEnableAndDisable ()
     {
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/dynamic_controls");
+        BrowserUtils.navigateToURL(BASE_URL + "/dynamic_controls");
         
         ElementUtils.click(TC13_ActionButtonLocator);
-        String enableMSG = WaitUtils.waitForVisibility(TC13_displayedMSG, 5).getText();
-        System.out.println("the enabled MSG is " + enableMSG);
+        WaitUtils.waitForNetworkIdle(300, 5, ExpectedConditions.visibilityOfElementLocated(TC13_displayedMSG));
+        String enableMSG = ElementUtils.getText(TC13_displayedMSG);
+        TestLog.info("the enabled MSG is " + enableMSG);
         assertTrue(enableMSG.contains("It's enabled!") , "Expected 'It's enabled!' but got" + enableMSG);
         
                 
         ElementUtils.click(TC13_ActionButtonLocator);
-        String disableMSG = WaitUtils.waitForVisibility(TC13_displayedMSG, 5).getText();
-        System.out.println("the disabled MSG is " + disableMSG);
+        WaitUtils.waitForNetworkIdle(300, 5, ExpectedConditions.visibilityOfElementLocated(TC13_displayedMSG));
+        String disableMSG = ElementUtils.getText(TC13_displayedMSG);
+        TestLog.info("the disabled MSG is " + disableMSG);
         assertTrue(disableMSG.contains("It's disabled!") , "Expected 'It's disabled!' but got " + disableMSG);      
     }
     
-    @Test
+    @Test(groups = "perf")
+    @TargetUrl("/dynamic_loading/1")
     public void TC14_DynamicLoading1()
     {
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/dynamic_loading/1");
+        BrowserUtils.navigateToURL(BASE_URL + "/dynamic_loading/1");
 
         ElementUtils.click(TC14_dynamicLodingStart1);
-        String msg = WaitUtils.waitForVisibility(TC14_dynamicLodingmsg1, 5).getText();
-        System.out.println("MSG is " + msg);
+        WaitUtils.waitForNetworkIdle(300, 5, ExpectedConditions.visibilityOfElementLocated(TC14_dynamicLodingmsg1));
+        String msg = ElementUtils.getText(TC14_dynamicLodingmsg1);
+        TestLog.info("MSG is " + msg);
         assertTrue(msg.contains("Hello World!") , "Expected 'Hello World!' but got" + msg);        
     }
     
-    @Test
+    @Test(groups = "perf")
+    @TargetUrl("/dynamic_loading/2")
     public void TC15_DynamicLoading2()
     {
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/dynamic_loading/2");
+        BrowserUtils.navigateToURL(BASE_URL + "/dynamic_loading/2");
 
         ElementUtils.click(TC15_dynamicLodingStart2);
-        String msg = WaitUtils.waitForVisibility(TC15_dynamicLodingmsg2, 5).getText();
-        System.out.println("MSG is " + msg);
+        WaitUtils.waitForNetworkIdle(300, 5, ExpectedConditions.visibilityOfElementLocated(TC15_dynamicLodingmsg2));
+        String msg = ElementUtils.getText(TC15_dynamicLodingmsg2);
+        TestLog.info("MSG is " + msg);
         assertTrue(msg.contains("Hello World!") , "Expected 'Hello World!' but got" + msg);        
     }
     
-    @Test
+    @Test(groups = "perf")
     public void TC16_enterAD ()
     {
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/entry_ad");
-        System.out.println("the content of the AD is : " + ElementUtils.getText(TC16_AdLocator));
+        BrowserUtils.navigateToURL(BASE_URL + "/entry_ad");
+        TestLog.info("the content of the AD is : " + ElementUtils.getText(TC16_AdLocator));
         ElementUtils.click(TC16_Adclose);    
         assertTrue(ElementUtils.getText(TC16_Adtitle).contains("Ad") , "there is an error in the page");
     }
     
-    @Test
+    @Test(groups = "perf")
     public void TC16_enterAD_reload ()
     {
-        BrowserUtils.navigateToURL("https://the-internet.herokuapp.com/entry_ad");
+        BrowserUtils.navigateToURL(BASE_URL + "/entry_ad");
         ElementUtils.click(TC16_Adclose);  
         ElementUtils.click(TC16_AdRestart);
-        System.out.println(ElementUtils.getText(TC16_Adpagetitle));
+        TestLog.info(ElementUtils.getText(TC16_Adpagetitle));
         assertTrue(ElementUtils.getText(TC16_Adpagetitle).contains("MODAL WINDOW") , "there is an error in the page reload");
     }
     
@@ -0,0 +1,24 @@
+package tests;
+
+import Selenium_Framework.pipeline.NavigationPipeline;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Hands the final run order of the test methods to {@link NavigationPipeline},
+ * so each test knows which page to preload for the next one.
+ */
+public class ScheduleRecorder implements IMethodInterceptor {
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        NavigationPipeline.setSchedule(methods.stream()
+                .map(instance -> instance.getMethod().getConstructorOrMethod().getMethod())
+                .collect(Collectors.toList()));
+        return methods;
+    }
+}